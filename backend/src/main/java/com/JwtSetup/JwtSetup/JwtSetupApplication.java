@@ -2,10 +2,12 @@ package com.JwtSetup.JwtSetup;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @SpringBootApplication
+@EnableScheduling
 public class JwtSetupApplication {
     private static final Logger log = LoggerFactory.getLogger(JwtSetupApplication.class);
 
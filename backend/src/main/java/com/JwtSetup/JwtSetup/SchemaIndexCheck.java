@@ -0,0 +1,113 @@
+package com.JwtSetup.JwtSetup;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Refuses to start against a database that lacks an index declared in the entity mapping
+ * ({@code @Table} and {@code @JoinTable} indexes), e.g. a migration that was not applied or an index
+ * dropped by hand. Hibernate's {@code ddl-auto=validate} checks tables, columns and types, but not
+ * indexes. An index counts as present when one with the same columns in the same order exists,
+ * whatever its name.
+ */
+@Component
+public class SchemaIndexCheck implements InitializingBean {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final DataSource dataSource;
+
+    private final boolean enabled;
+
+    public SchemaIndexCheck(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                            @Value("${schema.indexCheck.enabled:true}") boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, List<Index>> table : declaredIndexes().entrySet()) {
+                Set<List<String>> existing = existingIndexes(metaData, connection, table.getKey());
+                for (Index index : table.getValue()) {
+                    List<String> columns = Arrays.stream(index.columnList().split(","))
+                            .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                            .toList();
+                    if (!existing.contains(columns)) {
+                        missing.add(index.name() + " on " + table.getKey() + " " + columns);
+                    }
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Database schema has drifted from the mapping, missing indexes: "
+                    + String.join(", ", missing) + " (apply the migrations in db/migration)");
+        }
+    }
+
+    private Map<String, List<Index>> declaredIndexes() {
+        Map<String, List<Index>> indexes = new LinkedHashMap<>();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            Table table = type.getAnnotation(Table.class);
+            if (table != null && table.indexes().length > 0) {
+                indexes.computeIfAbsent(table.name(), name -> new ArrayList<>()).addAll(List.of(table.indexes()));
+            }
+            for (Field field : type.getDeclaredFields()) {
+                JoinTable joinTable = field.getAnnotation(JoinTable.class);
+                if (joinTable != null && joinTable.indexes().length > 0) {
+                    indexes.computeIfAbsent(joinTable.name(), name -> new ArrayList<>()).addAll(List.of(joinTable.indexes()));
+                }
+            }
+        }
+        return indexes;
+    }
+
+    // Column lists of the table's indexes (unique constraints included), lower case, in index order
+    private static Set<List<String>> existingIndexes(DatabaseMetaData metaData, Connection connection, String table)
+            throws SQLException {
+        Map<String, TreeMap<Short, String>> byName = new LinkedHashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, false)) {
+            while (rows.next()) {
+                String name = rows.getString("INDEX_NAME");
+                String column = rows.getString("COLUMN_NAME");
+                if (name != null && column != null) {
+                    byName.computeIfAbsent(name, n -> new TreeMap<>())
+                            .put(rows.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        Set<List<String>> indexes = new HashSet<>();
+        byName.values().forEach(columns -> indexes.add(List.copyOf(columns.values())));
+        return indexes;
+    }
+}
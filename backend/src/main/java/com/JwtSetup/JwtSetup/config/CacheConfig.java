@@ -0,0 +1,118 @@
+package com.JwtSetup.JwtSetup.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level and query cache, in process on Caffeine (through JCache). Regions:
+ * <ul>
+ *     <li>{@code users}, {@code users.roles}, {@code roles}, {@code projects}: entities and the roles collection</li>
+ *     <li>{@code query.users}, {@code query.roles}: results of
+ *     {@code findByUsername} and {@code findByName}</li>
+ *     <li>Hibernate's update timestamps, which invalidate cached query results when a table they read is written</li>
+ * </ul>
+ * Writes through Hibernate keep the regions current (read-write strategy; bulk updates evict the
+ * whole entity region, so project counters are updated through the entity). {@code cache.ttlSeconds}
+ * bounds how long a change made outside the application can go unseen. Each region holds at most
+ * {@code cache.maxEntries}. Every application context gets its own cache manager, so contexts in one
+ * JVM (tests) never see each other's entries.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final List<String> ENTITY_REGIONS = List.of("users", "users.roles", "roles", "projects");
+
+    public static final List<String> QUERY_REGIONS = List.of("query.users", "query.roles");
+
+    private final boolean enabled;
+
+    public CacheConfig(@Value("${cache.secondLevel.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${cache.maxEntries:10000}") long maxEntries,
+                                              @Value("${cache.ttlSeconds:600}") long ttlSeconds) {
+        CacheManager cacheManager = new CaffeineCachingProvider()
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : ENTITY_REGIONS) {
+            cacheManager.createCache(region, bounded(maxEntries, ttlSeconds));
+        }
+        for (String region : QUERY_REGIONS) {
+            cacheManager.createCache(region, bounded(maxEntries, ttlSeconds));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(maxEntries, ttlSeconds));
+        // One entry per table; must never be evicted before the query results that depend on it
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+                // Every region is created above; a missing one is a mapping mistake
+                properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            }
+        };
+    }
+
+    // hibernate.cache.hit.ratio{region}: hits / (hits + misses) since startup, NaN before the first lookup
+    @Bean
+    public MeterBinder cacheRegionMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            if (!enabled) {
+                return;
+            }
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : ENTITY_REGIONS) {
+                Gauge.builder("hibernate.cache.hit.ratio", statistics,
+                                s -> hitRatio(s.getDomainDataRegionStatistics(region)))
+                        .tag("region", region).register(registry);
+            }
+            for (String region : QUERY_REGIONS) {
+                Gauge.builder("hibernate.cache.hit.ratio", statistics,
+                                s -> hitRatio(s.getQueryRegionStatistics(region)))
+                        .tag("region", region).register(registry);
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxEntries, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return configuration;
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return Double.NaN;
+        }
+        long lookups = region.getHitCount() + region.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) region.getHitCount() / lookups;
+    }
+}
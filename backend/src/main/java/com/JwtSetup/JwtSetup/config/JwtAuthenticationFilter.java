@@ -1,8 +1,11 @@
 package com.JwtSetup.JwtSetup.config;
 
 import com.JwtSetup.JwtSetup.service.JwtUtils;
-import com.JwtSetup.JwtSetup.service.UserDetailsServiceImpl;
+import com.JwtSetup.JwtSetup.service.UserDetailsCache;
+import com.JwtSetup.JwtSetup.service.UserDetailsImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,7 +20,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -26,12 +31,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserDetailsCache userDetailsCache;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
         String path = request.getRequestURI();
-        return path.startsWith("/api/auth/signin") || path.startsWith("/api/auth/signup");
+        // /refresh verifies its own (refresh) token in AuthController; the actuator is on the localhost management port
+        return path.startsWith("/api/auth/signin") || path.startsWith("/api/auth/signup")
+                || path.startsWith("/api/auth/refresh") || path.startsWith("/actuator/");
     }
 
     @Override
@@ -41,13 +48,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = parseJwt(request);
             
-            if (jwt == null || !jwtUtils.validateJwtToken(jwt)) {
+            if (jwt == null) {
                 sendErrorResponse(response, "Unauthorized: Invalid or missing token");
                 return;
             }
 
-            String username = jwtUtils.getUsernameFromToken(jwt);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // Single verification per token lifetime (cached claims)
+            Claims claims;
+            try {
+                claims = jwtUtils.getVerifiedClaims(jwt);
+            } catch (JwtException | IllegalArgumentException e) {
+                sendErrorResponse(response, "Unauthorized: Invalid or missing token");
+                return;
+            }
+
+            // Refresh tokens are only accepted by /api/auth/refresh
+            if (JwtUtils.TYPE_REFRESH.equals(claims.get(JwtUtils.CLAIM_TYPE, String.class))) {
+                sendErrorResponse(response, "Unauthorized: Invalid or missing token");
+                return;
+            }
+
+            String username = claims.getSubject();
+            UserDetails userDetails = resolvePrincipal(username, claims);
+            if (!userDetails.isEnabled()) {
+                sendErrorResponse(response, "Unauthorized: Account disabled");
+                return;
+            }
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
@@ -62,6 +88,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Built from the token claims; the database is only consulted for legacy tokens or users changed since issuance
+    private UserDetails resolvePrincipal(String username, Claims claims) {
+        Number userId = claims.get(JwtUtils.CLAIM_USER_ID, Number.class);
+        List<?> roles = claims.get(JwtUtils.CLAIM_ROLES, List.class);
+        if (userId == null || roles == null || userDetailsCache.changedSince(username, claims.getIssuedAt())) {
+            return userDetailsCache.get(username);
+        }
+        return UserDetailsImpl.fromClaims(userId.longValue(), username,
+                roles.stream().map(String::valueOf).collect(Collectors.toList()));
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,50 @@
+package com.JwtSetup.JwtSetup.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics published at {@code /actuator/prometheus} on the management port (localhost only):
+ * <ul>
+ *     <li>{@code http.server.requests}: latency per endpoint (uri template), with histogram buckets</li>
+ *     <li>{@code http.server.requests.queries}: SQL statements per request ({@link RequestMetricsFilter})</li>
+ *     <li>{@code spring.data.repository.invocations}: time per repository method</li>
+ *     <li>{@code hibernate.*}: statements, entity loads, flushes, transactions, cache hits</li>
+ *     <li>{@code auth.jwt.*} and {@code auth.password.*}: token validation and BCrypt checks</li>
+ *     <li>{@code attachments.bytes}: attachment bytes uploaded and served</li>
+ * </ul>
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Histogram buckets for request and repository timers, so percentiles can be aggregated across instances
+    @Bean
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals("http.server.requests") || id.getName().equals("spring.data.repository.invocations")) {
+                    return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateMetricsCustomizer(
+            @Value("${metrics.hibernateStatistics:true}") boolean statistics) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+            properties.put(AvailableSettings.GENERATE_STATISTICS, statistics);
+            // Statistics would otherwise also log a summary at the end of every session
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.JwtSetup.JwtSetup.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements one request to this endpoint may run, counting everything done on the request
+ * thread after authentication (lazy loads while serializing included). On a class it applies to every
+ * endpoint without its own; endpoints with neither get {@code queries.budget.default}.
+ * See {@link QueryBudgetChecker}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,96 @@
+package com.JwtSetup.JwtSetup.config;
+
+import com.JwtSetup.JwtSetup.exception.QueryBudgetExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Checks each request's statement count against its endpoint's {@link QueryBudget} and looks for
+ * statement shapes repeated {@code queries.repeatThreshold} times or more, the signature of a lazy
+ * load in a loop. {@code queries.budget.mode}: {@code log} (default) warns, at most once per
+ * {@code queries.logIntervalMs} per endpoint; {@code fail} (tests) also throws for a budget overrun
+ * so the integration test making the request fails; {@code off} skips the check.
+ */
+@Component
+public class QueryBudgetChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetChecker.class);
+
+    private static final int MAX_SHAPE_LENGTH = 300;
+
+    private final String mode;
+
+    private final int defaultBudget;
+
+    private final int repeatThreshold;
+
+    private final long logIntervalMs;
+
+    // Endpoint -> when it was last logged
+    private final Map<String, Long> lastLogged = new ConcurrentHashMap<>();
+
+    public QueryBudgetChecker(@Value("${queries.budget.mode:log}") String mode,
+                              @Value("${queries.budget.default:10}") int defaultBudget,
+                              @Value("${queries.repeatThreshold:5}") int repeatThreshold,
+                              @Value("${queries.logIntervalMs:60000}") long logIntervalMs) {
+        this.mode = mode;
+        this.defaultBudget = defaultBudget;
+        this.repeatThreshold = repeatThreshold;
+        this.logIntervalMs = logIntervalMs;
+    }
+
+    public boolean isEnabled() {
+        return !"off".equals(mode);
+    }
+
+    public void check(HttpServletRequest request, String endpoint, long statements, Map<String, Integer> shapes) {
+        int budget = budgetFor(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+        Map<String, Integer> repeated = shapes.entrySet().stream()
+                .filter(shape -> shape.getValue() >= repeatThreshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        boolean overBudget = statements > budget;
+        if (!overBudget && repeated.isEmpty()) {
+            return;
+        }
+        String message = endpoint + " ran " + statements + " SQL statements (budget " + budget + ")"
+                + repeated.entrySet().stream()
+                .map(shape -> "\n  " + shape.getValue() + "x " + abbreviate(shape.getKey()))
+                .collect(Collectors.joining());
+        if (overBudget && "fail".equals(mode)) {
+            throw new QueryBudgetExceededException(message);
+        }
+        long now = System.currentTimeMillis();
+        Long last = lastLogged.get(endpoint);
+        if (last == null || now - last >= logIntervalMs) {
+            lastLogged.put(endpoint, now);
+            log.warn(overBudget ? "Query budget exceeded: {}" : "Repeated statements: {}", message);
+        }
+    }
+
+    int budgetFor(Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), QueryBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+
+    private static String abbreviate(String shape) {
+        return shape.length() <= MAX_SHAPE_LENGTH ? shape : shape.substring(0, MAX_SHAPE_LENGTH) + "...";
+    }
+}
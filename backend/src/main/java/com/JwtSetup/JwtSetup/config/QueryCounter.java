@@ -0,0 +1,55 @@
+package com.JwtSetup.JwtSetup.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread, so a request can tell how many
+ * queries it ran (see {@link RequestMetricsFilter}). While a thread is recording, statements are
+ * also tallied by shape, which is how N+1 loops show up. Installed as the session factory's
+ * statement inspector by {@link MetricsConfig}; the SQL itself is passed through unchanged.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static final ThreadLocal<Map<String, Integer>> SHAPES = new ThreadLocal<>();
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        Map<String, Integer> shapes = SHAPES.get();
+        if (shapes != null) {
+            shapes.merge(shape(sql), 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    // Statements prepared so far on this thread; callers take differences
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    public static void startRecording() {
+        SHAPES.set(new HashMap<>());
+    }
+
+    // Statement shapes since startRecording, with how often each ran
+    public static Map<String, Integer> stopRecording() {
+        Map<String, Integer> shapes = SHAPES.get();
+        SHAPES.remove();
+        return shapes != null ? shapes : Map.of();
+    }
+
+    // Statements differing only in the length of an IN list count as the same shape
+    static String shape(String sql) {
+        return PARAMETER_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("(?...)");
+    }
+}
@@ -0,0 +1,171 @@
+package com.JwtSetup.JwtSetup.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read/write splitting, on when {@code datasource.replicas.urls} lists one or more replicas (comma
+ * separated). Writes and all other reads stay on the primary ({@code spring.datasource.*});
+ * {@link ReplicaRead} methods read from the replicas as decided by {@link ReadRoutingDataSource}.
+ * A user counts as a writer from the start of any POST, PUT, PATCH or DELETE. Replica reads bypass
+ * the second-level and query caches. Replica pools take the {@code spring.datasource.hikari.*} settings, open
+ * read-only connections and give up on a connection after {@code datasource.replicas.connectionTimeoutMs}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "urls")
+public class ReadRoutingConfig {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @Bean
+    public ReadRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${datasource.replicas.urls}") String urls,
+                                            @Value("${datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                            @Value("${datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                            @Value("${datasource.replicas.stickyMs:5000}") long stickyMs,
+                                            @Value("${datasource.replicas.retryAfterMs:30000}") long retryAfterMs,
+                                            @Value("${datasource.replicas.connectionTimeoutMs:1000}") long connectionTimeoutMs) {
+        HikariDataSource primary = pool(properties.initializeDataSourceBuilder(), environment, meterRegistry, "primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        List<String> replicaUrls = Arrays.stream(urls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = pool(properties.initializeDataSourceBuilder()
+                    .url(replicaUrls.get(i)).username(username).password(password), environment, meterRegistry, "replica-" + i);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(connectionTimeoutMs);
+            // Start even when the replica is down; reads fall back to the primary meanwhile
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReadRoutingDataSource(primary, replicas, stickyMs, retryAfterMs, meterRegistry);
+    }
+
+    // Outside the transaction interceptor, so the routing is decided before a transaction opens its connection
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor replicaReadAdvisor(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        MethodInterceptor interceptor = invocation -> {
+            boolean previous = ReadRoutingDataSource.enterReplicaScope();
+            try {
+                return bypassingCache(entityManagerFactory.getObject(), invocation);
+            } finally {
+                ReadRoutingDataSource.exitReplicaScope(previous);
+            }
+        };
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReplicaRead.class), interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    /**
+     * Rows read from a replica may lag the primary, and the second-level cache would serve them to every
+     * user until evicted or expired, so the EntityManager neither reads nor stores the cache here (both
+     * modes BYPASS, which its queries inherit); entries come from primary reads and writes only. Reading
+     * alone is not enough: Hibernate stores a cacheable query's result whenever it looked the query up.
+     * With open-in-view the request's EntityManager is already bound; otherwise one is bound for the
+     * call, for the transaction to join.
+     */
+    private static Object bypassingCache(EntityManagerFactory entityManagerFactory, MethodInvocation invocation)
+            throws Throwable {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        boolean bound = holder == null;
+        if (bound) {
+            holder = new EntityManagerHolder(entityManagerFactory.createEntityManager());
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, holder);
+        }
+        EntityManager entityManager = holder.getEntityManager();
+        Map<String, Object> properties = entityManager.getProperties();
+        Object previousRetrieve = properties.getOrDefault(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.USE);
+        Object previousStore = properties.getOrDefault(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.USE);
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS);
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        try {
+            return invocation.proceed();
+        } finally {
+            if (bound) {
+                TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+                EntityManagerFactoryUtils.closeEntityManager(entityManager);
+            } else {
+                entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, previousRetrieve);
+                entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, previousStore);
+            }
+        }
+    }
+
+    // Runs after the security filters, so the caller is known. The write is recorded before it runs, so
+    // reads that overlap it stay on the primary too, and again at the end, so the window follows the commit.
+    @Bean
+    public OncePerRequestFilter readYourWritesFilter(ReadRoutingDataSource dataSource) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                boolean write = !READ_METHODS.contains(request.getMethod()) && authentication != null
+                        && !(authentication instanceof AnonymousAuthenticationToken);
+                if (write) {
+                    dataSource.recordWrite(authentication.getName());
+                }
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    if (write) {
+                        dataSource.recordWrite(authentication.getName());
+                    }
+                }
+            }
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceBuilder<?> builder, Environment environment,
+                                         MeterRegistry meterRegistry, String name) {
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
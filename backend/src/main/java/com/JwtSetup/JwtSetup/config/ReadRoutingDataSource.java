@@ -0,0 +1,130 @@
+package com.JwtSetup.JwtSetup.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out primary connections, except inside {@link ReplicaRead} methods, which get a replica
+ * connection (round robin) unless:
+ * <ul>
+ *     <li>the current user wrote within the last {@code stickyMs} (read-your-writes), or</li>
+ *     <li>no replica is healthy; a replica that fails to hand out a connection is skipped for
+ *     {@code retryAfterMs} and the read goes to the primary.</li>
+ * </ul>
+ */
+public class ReadRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> replicaScope = ThreadLocal.withInitial(() -> false);
+
+    private static final class Replica {
+        final HikariDataSource dataSource;
+        volatile long downUntil;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final HikariDataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    private final long retryAfterMs;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter replicaConnections;
+
+    private final Counter fallbacks;
+
+    public ReadRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, long stickyMs,
+                                 long retryAfterMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(stickyMs, TimeUnit.MILLISECONDS)
+                .build();
+        this.retryAfterMs = retryAfterMs;
+        this.replicaConnections = meterRegistry.counter("datasource.routing.connections", "target", "replica");
+        this.fallbacks = meterRegistry.counter("datasource.routing.fallbacks");
+    }
+
+    // Turns replica routing on for the current thread; returns the previous state for exitReplicaScope
+    static boolean enterReplicaScope() {
+        boolean previous = replicaScope.get();
+        replicaScope.set(true);
+        return previous;
+    }
+
+    static void exitReplicaScope(boolean previous) {
+        replicaScope.set(previous);
+    }
+
+    // Sends this user's reads to the primary until the sticky window has passed
+    public void recordWrite(String username) {
+        recentWriters.put(username, Boolean.TRUE);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicaScope.get() && !replicas.isEmpty() && !recentWriter()) {
+            long now = System.currentTimeMillis();
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (replica.downUntil > now) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.downUntil = now + retryAfterMs;
+                    log.warn("Replica {} unavailable, skipping it for {} ms: {}",
+                            replica.dataSource.getPoolName(), retryAfterMs, e.getMessage());
+                }
+            }
+            fallbacks.increment();
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private boolean recentWriter() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && !(authentication instanceof AnonymousAuthenticationToken)
+                && recentWriters.getIfPresent(authentication.getName()) != null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.JwtSetup.JwtSetup.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Connections opened while the method runs come from a read replica when replicas are configured
+ * (see {@link ReadRoutingConfig}), unless the caller wrote recently or no replica is healthy. Only for
+ * methods behind read-only endpoints: with open-in-view a request keeps the first connection it opens.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
@@ -0,0 +1,64 @@
+package com.JwtSetup.JwtSetup.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Records how many SQL statements each request ran, per method and uri template, as
+ * {@code http.server.requests.queries}, and hands the count to {@link QueryBudgetChecker}. Only
+ * statements on the request thread count; work handed to other pools (events, thumbnails,
+ * search indexing) is not attributed to the request.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    // Bucket bounds for the per-request query counts
+    private static final double[] QUERY_BUCKETS = {1, 2, 3, 5, 10, 20, 50, 100};
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private QueryBudgetChecker queryBudgetChecker;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean checked = queryBudgetChecker.isEnabled();
+        if (checked) {
+            QueryCounter.startRecording();
+        }
+        long before = QueryCounter.current();
+        long statements;
+        Map<String, Integer> shapes;
+        Object pattern;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statements = QueryCounter.current() - before;
+            shapes = checked ? QueryCounter.stopRecording() : Map.of();
+            pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.queries")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .serviceLevelObjectives(QUERY_BUCKETS)
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+        if (checked && pattern != null) {
+            queryBudgetChecker.check(request, request.getMethod() + " " + pattern, statements, shapes);
+        }
+    }
+}
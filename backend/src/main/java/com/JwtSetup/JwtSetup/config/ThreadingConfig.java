@@ -0,0 +1,46 @@
+package com.JwtSetup.JwtSetup.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports which threads handle requests. With {@code spring.threads.virtual.enabled=true} on Java 21+,
+ * Tomcat request handling (including attachment uploads and downloads), {@code @Scheduled} jobs and
+ * Spring's task executor run on virtual threads. The SSE dispatcher and the thumbnail workers keep their
+ * own bounded platform pools: {@code SseEmitter.send} is {@code synchronized} around a socket write
+ * (it would pin its carrier), and thumbnails are CPU-bound.
+ */
+@Component
+public class ThreadingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    private final Environment environment;
+
+    public ThreadingConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    public boolean isVirtual() {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (isVirtual()) {
+            log.info("Request handling runs on virtual threads");
+        } else if (requested) {
+            // Spring Boot silently ignores the property below Java 21
+            log.warn("spring.threads.virtual.enabled is set but the runtime is Java {}; using platform threads",
+                    Runtime.version().feature());
+        } else {
+            log.info("Request handling runs on platform threads");
+        }
+    }
+}
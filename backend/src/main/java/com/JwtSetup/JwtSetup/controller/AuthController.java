@@ -1,16 +1,21 @@
 package com.JwtSetup.JwtSetup.controller;
 
+import com.JwtSetup.JwtSetup.config.QueryBudget;
+import com.JwtSetup.JwtSetup.entity.RefreshToken;
 import com.JwtSetup.JwtSetup.entity.User;
 import com.JwtSetup.JwtSetup.repo.UserRepository;
 import com.JwtSetup.JwtSetup.service.JwtUtils;
+import com.JwtSetup.JwtSetup.service.LoginRateLimiter;
+import com.JwtSetup.JwtSetup.service.RefreshTokenService;
 import com.JwtSetup.JwtSetup.service.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
@@ -29,21 +34,29 @@ public class AuthController {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @QueryBudget(3)
     @PostMapping("/signin")
-    public Map<String, String> authenticateUser(@RequestBody Map<String, String> request) {
+    public Map<String, String> authenticateUser(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+        // Throttled before any password check, which is the expensive part
+        loginRateLimiter.acquire(request.get("username"), httpRequest.getRemoteAddr());
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.get("username"), request.get("password")));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String accessToken = jwtUtils.generateAccessToken(authentication);
+
+            // Each sign-in starts a new token family, so other devices stay signed in
+            String familyId = refreshTokenService.newFamilyId();
+            String accessToken = jwtUtils.generateAccessToken(authentication, familyId);
             String refreshToken = jwtUtils.generateRefreshToken(authentication);
 
-            User user = userRepository.findByUsername(request.get("username")).orElseThrow();
-            user.setRefreshToken(passwordEncoder.encode(refreshToken));
-            userRepository.save(user);
+            User user = userRepository.getReferenceById(((UserDetailsImpl) authentication.getPrincipal()).getId());
+            refreshTokenService.store(user, familyId, refreshToken);
 
             Map<String, String> tokens = new HashMap<>();
             tokens.put("accessToken", accessToken);
@@ -55,6 +68,7 @@ public class AuthController {
         }
     }
 
+    @QueryBudget(4)
     @PostMapping("/refresh")
     public Map<String, String> refreshToken(@RequestHeader("Authorization") String refreshTokenHeader) {
         String refreshToken = refreshTokenHeader.replace("Bearer ", "");
@@ -64,22 +78,17 @@ public class AuthController {
             throw new RuntimeException("Invalid token type: Expected refresh token");
         }
 
-        String username = jwtUtils.getUsernameFromToken(refreshToken);
-        User user = userRepository.findByUsername(username).orElseThrow();
-
-        // Vérifier si le refresh token correspond à celui stocké en base (hashé)
-        if (!passwordEncoder.matches(refreshToken, user.getRefreshToken())) {
-            throw new RuntimeException("Invalid refresh token");
-        }
-
-        UserDetailsImpl userDetails = UserDetailsImpl.build(user);
-        Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        // Remplace le refresh token (usage unique) ; une réutilisation révoque toute la famille
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken, user -> {
+            if (!user.isEnabled()) {
+                throw new RuntimeException("Account disabled");
+            }
+            return jwtUtils.generateRefreshToken(authenticationOf(user));
+        });
+        RefreshToken consumed = rotation.consumed();
 
-        String newAccessToken = jwtUtils.generateAccessToken(authentication);
-        String newRefreshToken = jwtUtils.generateRefreshToken(authentication);
-
-        user.setRefreshToken(passwordEncoder.encode(newRefreshToken));
-        userRepository.save(user);
+        String newAccessToken = jwtUtils.generateAccessToken(authenticationOf(consumed.getUser()), consumed.getFamilyId());
+        String newRefreshToken = rotation.nextToken();
 
         Map<String, String> tokens = new HashMap<>();
         tokens.put("accessToken", newAccessToken);
@@ -87,14 +96,25 @@ public class AuthController {
         return tokens;
     }
 
+    private static Authentication authenticationOf(User user) {
+        UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    @QueryBudget(2)
     @PostMapping("/logout")
     public Map<String, String> logout(@RequestHeader("Authorization") String accessTokenHeader) {
         String accessToken = accessTokenHeader.replace("Bearer ", "");
-        String username = jwtUtils.getUsernameFromToken(accessToken);
-
-        User user = userRepository.findByUsername(username).orElseThrow();
-        user.setRefreshToken(null); // Supprimer le refresh token en base
-        userRepository.save(user);
+        Claims claims = jwtUtils.getVerifiedClaims(accessToken);
+
+        // Révoquer uniquement la famille de cet appareil ; sans famille (ancien token), toutes
+        String familyId = claims.get(JwtUtils.CLAIM_FAMILY_ID, String.class);
+        if (familyId != null) {
+            refreshTokenService.revokeFamily(familyId);
+        } else {
+            User user = userRepository.findByUsername(claims.getSubject()).orElseThrow();
+            refreshTokenService.revokeAllForUser(user.getId());
+        }
 
         SecurityContextHolder.clearContext(); // Nettoyer le contexte de sécurité
 
@@ -0,0 +1,25 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET for the JSON endpoints, with one caching policy for all of them: private and
+ * no-cache, so clients may keep a body but must revalidate it with If-None-Match, and it varies with
+ * the caller's token. Files go through {@link FileResponseWriter}, which applies the same policy.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    // Sets the caching headers and returns true (response 304) if the client's copy is still current
+    static boolean notModified(WebRequest request, String etag) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            servletRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        }
+        return request.checkNotModified(etag);
+    }
+}
@@ -0,0 +1,208 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a file as an HTTP response with validators, conditional GET and byte ranges
+ * (single and multipart/byteranges, honoring If-Range).
+ * <p>
+ * Whole-file and single-range bodies are handed to Tomcat's sendfile, so the kernel copies
+ * the bytes and the heap never sees them; otherwise the file channel is copied to the response
+ * with the JDK's small transfer buffer. Either way memory use does not depend on file size.
+ */
+@Component
+public class FileResponseWriter {
+
+    static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // Below this, a plain write is cheaper than setting up sendfile (Tomcat's DefaultServlet uses the same)
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final String CRLF = "\r\n";
+
+    // private + no-cache: clients keep the file but revalidate it, which costs a 304 when unchanged
+    public long write(HttpServletRequest request, HttpServletResponse response, Path file, long length,
+                      String etag, Instant lastModified, String contentType, String contentDisposition) throws IOException {
+        return write(request, response, file, length, etag, lastModified, contentType, contentDisposition, "private, no-cache");
+    }
+
+    // Returns the number of file bytes sent: 0 for a 304, a HEAD or an unsatisfiable range
+    public long write(HttpServletRequest request, HttpServletResponse response, Path file, long length,
+                      String etag, Instant lastModified, String contentType, String contentDisposition,
+                      String cacheControl) throws IOException {
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified.toEpochMilli())) {
+            return 0;
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+
+        List<HttpRange> ranges = requestedRanges(request, etag, lastModified);
+        if (ranges.isEmpty()) {
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            return send(request, response, file, 0, length);
+        }
+
+        List<long[]> bounds = satisfiableBounds(ranges, length);
+        if (bounds.isEmpty()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return 0;
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (bounds.size() == 1) {
+            long[] range = bounds.get(0);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, length));
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            return send(request, response, file, range[0], range[1] + 1);
+        }
+        return writeMultipart(request, response, file, length, contentType, bounds);
+    }
+
+    // Ranges to serve; empty when the whole file should be sent
+    private List<HttpRange> requestedRanges(HttpServletRequest request, String etag, Instant lastModified) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || !ifRangeMatches(request, etag, lastModified)) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored, as if absent
+            return List.of();
+        }
+    }
+
+    // If-Range holds either a strong entity tag or the exact Last-Modified date
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, Instant lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals("\"" + etag + "\"");
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified.getEpochSecond();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Inclusive [start, end] of each satisfiable range; none if they add up to more than the file
+    private List<long[]> satisfiableBounds(List<HttpRange> ranges, long length) {
+        List<long[]> bounds = new ArrayList<>();
+        long total = 0;
+        for (HttpRange range : ranges) {
+            try {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                if (start < length && start <= end) {
+                    bounds.add(new long[]{start, end});
+                    total += end - start + 1;
+                }
+            } catch (IllegalArgumentException ignored) { /* unsatisfiable range */ }
+        }
+        // Overlapping ranges could otherwise make one small file cost many times its size
+        return total > length ? List.of() : bounds;
+    }
+
+    private long writeMultipart(HttpServletRequest request, HttpServletResponse response, Path file, long length,
+                                String contentType, List<long[]> bounds) throws IOException {
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] range : bounds) {
+            byte[] header = (CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, length) + CRLF + CRLF)
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + range[1] - range[0] + 1;
+        }
+        byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += end.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (isHead(request)) {
+            return 0;
+        }
+        OutputStream out = response.getOutputStream();
+        long sent = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel channel = Channels.newChannel(out);
+            for (int i = 0; i < bounds.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(in, bounds.get(i)[0], bounds.get(i)[1] + 1, channel);
+                sent += bounds.get(i)[1] + 1 - bounds.get(i)[0];
+            }
+        }
+        out.write(end);
+        return sent;
+    }
+
+    // Copies [start, end) of the file to the response body
+    private long send(HttpServletRequest request, HttpServletResponse response, Path file, long start, long end) throws IOException {
+        if (isHead(request)) {
+            return 0;
+        }
+        if (end - start >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end);
+            return end - start;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(in, start, end, Channels.newChannel(response.getOutputStream()));
+        }
+        return end - start;
+    }
+
+    private static void transfer(FileChannel in, long start, long end, WritableByteChannel out) throws IOException {
+        long position = start;
+        while (position < end) {
+            long transferred = in.transferTo(position, end - position, out);
+            if (transferred <= 0) {
+                throw new EOFException("File ended at " + position + ", expected " + end + " bytes");
+            }
+            position += transferred;
+        }
+    }
+
+    private static String contentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + length;
+    }
+
+    private static boolean isHead(HttpServletRequest request) {
+        return HttpMethod.HEAD.matches(request.getMethod());
+    }
+}
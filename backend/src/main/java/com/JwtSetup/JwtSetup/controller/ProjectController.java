@@ -1,26 +1,45 @@
 package com.JwtSetup.JwtSetup.controller;
 
+import com.JwtSetup.JwtSetup.config.QueryBudget;
+import com.JwtSetup.JwtSetup.dto.AttachmentDTO;
+import com.JwtSetup.JwtSetup.dto.BulkTaskRequestDTO;
+import com.JwtSetup.JwtSetup.dto.BulkTaskResultDTO;
 import com.JwtSetup.JwtSetup.dto.ProjectDTO;
 import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.dto.TaskFilterDTO;
+import com.JwtSetup.JwtSetup.dto.TaskPageDTO;
+import com.JwtSetup.JwtSetup.exception.ServiceUnavailableException;
+import com.JwtSetup.JwtSetup.service.AttachmentService;
+import com.JwtSetup.JwtSetup.service.ProjectEventBroadcaster;
 import com.JwtSetup.JwtSetup.service.ProjectService;
 import com.JwtSetup.JwtSetup.service.TaskService;
+import com.JwtSetup.JwtSetup.service.ThumbnailService;
 import com.JwtSetup.JwtSetup.application.UpdateTaskDueDateUseCase;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.*;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/projects")
@@ -35,56 +54,123 @@ public class ProjectController {
     @Autowired
     private UpdateTaskDueDateUseCase updateTaskDueDateUseCase;
 
+    @Autowired
+    private ProjectEventBroadcaster projectEventBroadcaster;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @Autowired
+    private FileResponseWriter fileResponseWriter;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // Project endpoints
+    // GET reads answer If-None-Match with 304 from versions alone, before any DTO is built
+    @QueryBudget(3)
     @GetMapping
-    public ResponseEntity<List<ProjectDTO>> getUserProjects(@AuthenticationPrincipal UserDetails userDetails) {
-        List<ProjectDTO> projects = projectService.getUserProjects(userDetails.getUsername());
+    public ResponseEntity<List<ProjectDTO>> getUserProjects(
+            @RequestParam(defaultValue = "false") boolean includeTasks,
+            @AuthenticationPrincipal UserDetails userDetails,
+            WebRequest request) {
+        if (ConditionalResponses.notModified(request, projectService.getUserProjectsETag(userDetails.getUsername(), includeTasks))) {
+            return null;
+        }
+        List<ProjectDTO> projects = includeTasks
+            ? projectService.getUserProjects(userDetails.getUsername())
+            : projectService.getUserProjectSummaries(userDetails.getUsername());
         return ResponseEntity.ok(projects);
     }
 
+    @QueryBudget(4)
     @GetMapping("/{id}")
-    public ResponseEntity<ProjectDTO> getProject(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<ProjectDTO> getProject(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails, WebRequest request) {
+        if (ConditionalResponses.notModified(request, projectService.getProjectETag(id, userDetails.getUsername()))) {
+            return null;
+        }
         ProjectDTO project = projectService.getProjectById(id, userDetails.getUsername());
         return ResponseEntity.ok(project);
     }
 
+    @QueryBudget(3)
     @PostMapping
     public ResponseEntity<ProjectDTO> createProject(@RequestBody ProjectDTO projectDTO, @AuthenticationPrincipal UserDetails userDetails) {
         ProjectDTO createdProject = projectService.createProject(projectDTO, userDetails.getUsername());
         return ResponseEntity.ok(createdProject);
     }
 
+    @QueryBudget(3)
     @PutMapping("/{id}")
     public ResponseEntity<ProjectDTO> updateProject(@PathVariable Long id, @RequestBody ProjectDTO projectDTO, @AuthenticationPrincipal UserDetails userDetails) {
         ProjectDTO updatedProject = projectService.updateProject(id, projectDTO, userDetails.getUsername());
         return ResponseEntity.ok(updatedProject);
     }
 
+    @QueryBudget(9)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProject(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
         projectService.deleteProject(id, userDetails.getUsername());
         return ResponseEntity.noContent().build();
     }
 
+    @QueryBudget(1)
     @GetMapping("/{id}/progress")
     public ResponseEntity<ProjectDTO> getProjectProgress(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
         ProjectDTO progress = projectService.getProjectProgress(id, userDetails.getUsername());
         return ResponseEntity.ok(progress);
     }
 
+    // Change feed; reconnecting clients send Last-Event-ID to replay what they missed.
+    // Errors are bare statuses since an event-stream client accepts no JSON body.
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamProjectEvents(
+            @PathVariable Long id,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (!projectService.isOwner(id, userDetails.getUsername())) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(projectEventBroadcaster.subscribe(id, lastEventId));
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+
     // Task endpoints
+    // Keyset-paginated: ?status=&section=&completed=&dueFrom=&dueTo=&sort=id|dueDate&cursor=&limit=
+    @QueryBudget(4)
     @GetMapping("/{projectId}/tasks")
-    public ResponseEntity<List<TaskDTO>> getProjectTasks(@PathVariable Long projectId, @AuthenticationPrincipal UserDetails userDetails) {
-        List<TaskDTO> tasks = taskService.getProjectTasks(projectId, userDetails.getUsername());
+    public ResponseEntity<TaskPageDTO> getProjectTasks(@PathVariable Long projectId, TaskFilterDTO filter, @AuthenticationPrincipal UserDetails userDetails, WebRequest request) {
+        if (ConditionalResponses.notModified(request, taskService.getProjectTasksETag(projectId, filter, userDetails.getUsername()))) {
+            return null;
+        }
+        TaskPageDTO tasks = taskService.getProjectTasks(projectId, filter, userDetails.getUsername());
         return ResponseEntity.ok(tasks);
     }
 
+    @QueryBudget(4)
     @PostMapping("/{projectId}/tasks")
     public ResponseEntity<TaskDTO> createTask(@PathVariable Long projectId, @RequestBody TaskDTO taskDTO, @AuthenticationPrincipal UserDetails userDetails) {
         TaskDTO createdTask = taskService.createTask(projectId, taskDTO, userDetails.getUsername());
         return ResponseEntity.ok(createdTask);
     }
 
+    // Grows per JDBC batch and id chunk, not per row: MAX_OPERATIONS stays well below this
+    @QueryBudget(600)
+    @PostMapping("/{projectId}/tasks/bulk")
+    public ResponseEntity<BulkTaskResultDTO> bulkTasks(@PathVariable Long projectId, @RequestBody BulkTaskRequestDTO request, @AuthenticationPrincipal UserDetails userDetails) {
+        BulkTaskResultDTO result = taskService.bulkTasks(projectId, request, userDetails.getUsername());
+        return ResponseEntity.ok(result);
+    }
+
+    @QueryBudget(5)
     @PutMapping("/{projectId}/tasks/{taskId}")
     public ResponseEntity<TaskDTO> updateTask(@PathVariable Long projectId, @PathVariable Long taskId, @RequestBody TaskDTO taskDTO, @AuthenticationPrincipal UserDetails userDetails) {
         // If only dueDate is provided, route through a dedicated use case
@@ -101,18 +187,21 @@ public class ProjectController {
         return ResponseEntity.ok(updatedTask);
     }
 
+    @QueryBudget(6)
     @DeleteMapping("/{projectId}/tasks/{taskId}")
     public ResponseEntity<Void> deleteTask(@PathVariable Long projectId, @PathVariable Long taskId, @AuthenticationPrincipal UserDetails userDetails) {
         taskService.deleteTask(projectId, taskId, userDetails.getUsername());
         return ResponseEntity.noContent().build();
     }
 
+    @QueryBudget(5)
     @PatchMapping("/{projectId}/tasks/{taskId}/toggle")
     public ResponseEntity<TaskDTO> toggleTaskComplete(@PathVariable Long projectId, @PathVariable Long taskId, @AuthenticationPrincipal UserDetails userDetails) {
         TaskDTO task = taskService.toggleTaskComplete(projectId, taskId, userDetails.getUsername());
         return ResponseEntity.ok(task);
     }
 
+    @QueryBudget(5)
     @PatchMapping("/{projectId}/tasks/{taskId}/status")
     public ResponseEntity<TaskDTO> updateTaskStatus(@PathVariable Long projectId, @PathVariable Long taskId, @AuthenticationPrincipal UserDetails userDetails) {
         TaskDTO task = taskService.updateTaskStatus(projectId, taskId, userDetails.getUsername());
@@ -122,16 +211,13 @@ public class ProjectController {
     // Allowed extensions
     private static final Set<String> ALLOWED_EXTENSIONS = Set.of("png", "jpg", "jpeg", "pdf", "docx", "txt");
 
-    private Path getTaskUploadDir(Long projectId, Long taskId) {
-        return Paths.get("uploads").resolve(String.valueOf(projectId)).resolve(String.valueOf(taskId));
-    }
-
     private String getExtension(String filename) {
         int idx = filename.lastIndexOf('.');
         return (idx == -1) ? "" : filename.substring(idx + 1).toLowerCase();
     }
 
-    // Upload an attachment for a task
+    // Upload an attachment for a task; identical content is stored once across all tasks
+    @QueryBudget(8)
     @PostMapping("/{projectId}/tasks/{taskId}/attachments")
     public ResponseEntity<String> uploadAttachment(
             @PathVariable Long projectId,
@@ -149,62 +235,90 @@ public class ProjectController {
             return ResponseEntity.badRequest().body("Extension non autorisée: " + ext);
         }
 
-        try {
-            Path uploadDir = getTaskUploadDir(projectId, taskId);
-            Files.createDirectories(uploadDir);
-            Path target = uploadDir.resolve(filename);
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-            return ResponseEntity.ok("Fichier téléversé: " + filename);
+        try (InputStream content = file.getInputStream()) {
+            AttachmentDTO attachment = attachmentService.upload(projectId, taskId, filename, content, userDetails.getUsername());
+            return ResponseEntity.ok("Fichier téléversé: " + attachment.getFilename());
         } catch (IOException e) {
             return ResponseEntity.status(500).body("Erreur lors de l'enregistrement du fichier.");
         }
     }
 
-    // List attachments for a task
+    // List attachments for a task: name, size, type, upload time and uploader, from one query
+    @QueryBudget(1)
     @GetMapping("/{projectId}/tasks/{taskId}/attachments")
-    public ResponseEntity<List<String>> listAttachments(
+    public ResponseEntity<List<AttachmentDTO>> listAttachments(
             @PathVariable Long projectId,
             @PathVariable Long taskId,
             @AuthenticationPrincipal UserDetails userDetails) {
 
-        try {
-            Path dir = getTaskUploadDir(projectId, taskId);
-            if (!Files.exists(dir)) {
-                return ResponseEntity.ok(List.of());
-            }
-            List<String> files = Files.list(dir)
-                    .filter(Files::isRegularFile)
-                    .map(p -> p.getFileName().toString())
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(files);
-        } catch (IOException e) {
-            return ResponseEntity.status(500).build();
-        }
+        return ResponseEntity.ok(attachmentService.list(projectId, taskId, userDetails.getUsername()));
     }
 
-    // Download an attachment
+    // Download an attachment: ETag (content hash), Last-Modified, 304s and byte ranges
+    @QueryBudget(1)
     @GetMapping("/{projectId}/tasks/{taskId}/attachments/{filename:.+}")
-    public ResponseEntity<Resource> downloadAttachment(
+    public ResponseEntity<Void> downloadAttachment(
             @PathVariable Long projectId,
             @PathVariable Long taskId,
             @PathVariable String filename,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
+        Optional<AttachmentDTO> found = attachmentService.findAttachment(projectId, taskId, filename, userDetails.getUsername());
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        AttachmentDTO attachment = found.get();
+        String disposition = ContentDisposition.attachment()
+                .filename(attachment.getFilename(), StandardCharsets.UTF_8).build().toString();
+        long sent = fileResponseWriter.write(request, response, attachmentService.blobPath(attachment), attachment.getSize(),
+                attachment.getSha256(), attachment.getUploadedAt(), attachment.getContentType(), disposition);
+        meterRegistry.counter("attachments.bytes", "direction", "out", "kind", "file").increment(sent);
+        // Response already written
+        return null;
+    }
+
+    // Preview of an image or PDF attachment. With ?v={sha256} (from the listing) the URL names
+    // immutable content and may be cached for a year; without it the client revalidates.
+    @QueryBudget(1)
+    @GetMapping("/{projectId}/tasks/{taskId}/attachments/{filename:.+}/thumbnail")
+    public ResponseEntity<Void> downloadThumbnail(
+            @PathVariable Long projectId,
+            @PathVariable Long taskId,
+            @PathVariable String filename,
+            @RequestParam(value = "v", required = false) String version,
+            @AuthenticationPrincipal UserDetails userDetails,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        Optional<AttachmentDTO> found = attachmentService.findAttachment(projectId, taskId, filename, userDetails.getUsername());
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        AttachmentDTO attachment = found.get();
+        Optional<Path> thumbnail;
         try {
-            Path file = getTaskUploadDir(projectId, taskId).resolve(filename).normalize();
-            if (!Files.exists(file) || !Files.isRegularFile(file)) {
-                return ResponseEntity.notFound().build();
-            }
-            Resource resource = new UrlResource(file.toUri());
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-        } catch (MalformedURLException e) {
-            return ResponseEntity.status(500).build();
+            thumbnail = thumbnailService.getThumbnail(attachment.getSha256(), attachment.getContentType(), attachment.getSize());
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "2").build();
         }
+        if (thumbnail.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String cacheControl = attachment.getSha256().equals(version)
+            ? "private, max-age=31536000, immutable"
+            : "private, no-cache";
+        long sent = fileResponseWriter.write(request, response, thumbnail.get(), Files.size(thumbnail.get()),
+                attachment.getSha256() + "-thumb", attachment.getUploadedAt(), MediaType.IMAGE_JPEG_VALUE, "inline",
+                cacheControl);
+        meterRegistry.counter("attachments.bytes", "direction", "out", "kind", "thumbnail").increment(sent);
+        // Response already written
+        return null;
     }
 
-    // Delete an attachment (remplacée)
+    // Delete an attachment; the stored content is removed once no attachment references it
+    @QueryBudget(6)
     @DeleteMapping("/{projectId}/tasks/{taskId}/attachments/{filename:.+}")
     public ResponseEntity<String> deleteAttachment(
             @PathVariable Long projectId,
@@ -212,43 +326,9 @@ public class ProjectController {
             @PathVariable String filename,
             @AuthenticationPrincipal UserDetails userDetails) {
 
-        try {
-            Path uploadDir = getTaskUploadDir(projectId, taskId).toAbsolutePath().normalize();
-            Path file = uploadDir.resolve(filename).normalize();
-
-            // Prevent path traversal: ensure the file is inside the upload directory
-            if (!file.startsWith(uploadDir)) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Chemin de fichier non autorisé.");
-            }
-
-            if (!Files.exists(file) || !Files.isRegularFile(file)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Fichier introuvable.");
-            }
-
-            boolean deleted = Files.deleteIfExists(file);
-            if (deleted) {
-                // cleanup empty parent dirs (silencieux)
-                try {
-                    Path parent = file.getParent();
-                    if (parent != null && Files.isDirectory(parent) && Files.list(parent).findAny().isEmpty()) {
-                        Files.delete(parent);
-                        Path grand = parent.getParent();
-                        if (grand != null && Files.isDirectory(grand) && Files.list(grand).findAny().isEmpty()) {
-                            Files.delete(grand);
-                        }
-                    }
-                } catch (IOException ignored) { /* ignore cleanup errors */ }
-
-                return ResponseEntity.ok("Fichier supprimé: " + file.getFileName().toString());
-            } else {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Impossible de supprimer le fichier.");
-            }
-        } catch (NoSuchFileException ex) {
+        if (!attachmentService.delete(projectId, taskId, filename, userDetails.getUsername())) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Fichier introuvable.");
-        } catch (SecurityException ex) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Permission refusée pour supprimer le fichier.");
-        } catch (IOException ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erreur lors de la suppression du fichier.");
         }
+        return ResponseEntity.ok("Fichier supprimé: " + filename);
     }
 }
@@ -0,0 +1,33 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import com.JwtSetup.JwtSetup.config.QueryBudget;
+import com.JwtSetup.JwtSetup.dto.SearchResultDTO;
+import com.JwtSetup.JwtSetup.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // Ranked matches across the caller's tasks and text attachments; prefixes and small typos match too
+    @QueryBudget(2)
+    @GetMapping
+    public ResponseEntity<List<SearchResultDTO>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(searchService.search(q, limit, userDetails.getUsername()));
+    }
+}
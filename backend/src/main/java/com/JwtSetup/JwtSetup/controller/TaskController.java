@@ -0,0 +1,33 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import com.JwtSetup.JwtSetup.config.QueryBudget;
+import com.JwtSetup.JwtSetup.dto.MyTasksFilterDTO;
+import com.JwtSetup.JwtSetup.dto.TaskPageDTO;
+import com.JwtSetup.JwtSetup.service.TaskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/tasks")
+public class TaskController {
+
+    @Autowired
+    private TaskService taskService;
+
+    // The caller's tasks across projects, by due date; keyset-paginated:
+    // ?status=&completed=&due=overdue|today|week&today=&dueFrom=&dueTo=&q=&cursor=&limit=
+    @QueryBudget(4)
+    @GetMapping
+    public ResponseEntity<TaskPageDTO> getMyTasks(MyTasksFilterDTO filter, @AuthenticationPrincipal UserDetails userDetails, WebRequest request) {
+        if (ConditionalResponses.notModified(request, taskService.getMyTasksETag(filter, userDetails.getUsername()))) {
+            return null;
+        }
+        return ResponseEntity.ok(taskService.getMyTasks(filter, userDetails.getUsername()));
+    }
+}
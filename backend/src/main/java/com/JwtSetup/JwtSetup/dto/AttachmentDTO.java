@@ -0,0 +1,95 @@
+package com.JwtSetup.JwtSetup.dto;
+
+import java.time.Instant;
+
+public class AttachmentDTO {
+    private Long id;
+    private Long taskId;
+    private String filename;
+    private long size;
+    private String sha256;
+    private String contentType;
+    private Instant uploadedAt;
+    private String uploadedBy;
+
+    // Constructors
+    public AttachmentDTO() {
+    }
+
+    public AttachmentDTO(Long id, Long taskId, String filename, long size, String sha256, String contentType,
+                         Instant uploadedAt, String uploadedBy) {
+        this.id = id;
+        this.taskId = taskId;
+        this.filename = filename;
+        this.size = size;
+        this.sha256 = sha256;
+        this.contentType = contentType;
+        this.uploadedAt = uploadedAt;
+        this.uploadedBy = uploadedBy;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Instant getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public void setUploadedAt(Instant uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+
+    public String getUploadedBy() {
+        return uploadedBy;
+    }
+
+    public void setUploadedBy(String uploadedBy) {
+        this.uploadedBy = uploadedBy;
+    }
+}
@@ -0,0 +1,46 @@
+package com.JwtSetup.JwtSetup.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of {@code POST /api/projects/{projectId}/tasks/bulk}.
+ * Operations are applied in order (create, update, delete) within one transaction.
+ * An update only changes the non-null fields of each entry, so a status change is
+ * an entry with just {@code id} and {@code status}.
+ */
+public class BulkTaskRequestDTO {
+    public static final int MAX_OPERATIONS = 10_000;
+
+    private List<TaskDTO> create = new ArrayList<>();
+    private List<TaskDTO> update = new ArrayList<>();
+    private List<Long> delete = new ArrayList<>();
+
+    public List<TaskDTO> getCreate() {
+        return create;
+    }
+
+    public void setCreate(List<TaskDTO> create) {
+        this.create = create != null ? create : new ArrayList<>();
+    }
+
+    public List<TaskDTO> getUpdate() {
+        return update;
+    }
+
+    public void setUpdate(List<TaskDTO> update) {
+        this.update = update != null ? update : new ArrayList<>();
+    }
+
+    public List<Long> getDelete() {
+        return delete;
+    }
+
+    public void setDelete(List<Long> delete) {
+        this.delete = delete != null ? delete : new ArrayList<>();
+    }
+
+    public int size() {
+        return create.size() + update.size() + delete.size();
+    }
+}
@@ -0,0 +1,44 @@
+package com.JwtSetup.JwtSetup.dto;
+
+import java.util.List;
+
+public class BulkTaskResultDTO {
+    private List<TaskDTO> created;
+    private List<TaskDTO> updated;
+    private Integer deleted;
+
+    // Constructors
+    public BulkTaskResultDTO() {
+    }
+
+    public BulkTaskResultDTO(List<TaskDTO> created, List<TaskDTO> updated, Integer deleted) {
+        this.created = created;
+        this.updated = updated;
+        this.deleted = deleted;
+    }
+
+    // Getters and Setters
+    public List<TaskDTO> getCreated() {
+        return created;
+    }
+
+    public void setCreated(List<TaskDTO> created) {
+        this.created = created;
+    }
+
+    public List<TaskDTO> getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(List<TaskDTO> updated) {
+        this.updated = updated;
+    }
+
+    public Integer getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Integer deleted) {
+        this.deleted = deleted;
+    }
+}
@@ -0,0 +1,157 @@
+package com.JwtSetup.JwtSetup.dto;
+
+import com.JwtSetup.JwtSetup.exception.BadRequestException;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query parameters of {@code GET /api/tasks}, the caller's tasks across all projects, by due date.
+ * {@code due} picks a window relative to {@code today} (the client's date, defaults to the server's):
+ * {@code overdue} (before today), {@code today}, or {@code week} (today through Sunday).
+ * Without a window, tasks with no due date follow the dated ones. {@code q} keeps the tasks whose
+ * title, description or project title contains it, ignoring case.
+ */
+public class MyTasksFilterDTO {
+    private List<String> status = new ArrayList<>(); // any of NOT_STARTED, IN_PROGRESS, COMPLETED
+    private Boolean completed;
+    private String due; // overdue, today or week
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate today;
+    private String q;
+    private String cursor;
+    private Integer limit;
+
+    public List<String> getStatus() {
+        return status;
+    }
+
+    public void setStatus(List<String> status) {
+        this.status = status;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+
+    public String getDue() {
+        return due;
+    }
+
+    public void setDue(String due) {
+        this.due = due;
+    }
+
+    public LocalDate getDueFrom() {
+        return dueFrom;
+    }
+
+    public void setDueFrom(LocalDate dueFrom) {
+        this.dueFrom = dueFrom;
+    }
+
+    public LocalDate getDueTo() {
+        return dueTo;
+    }
+
+    public void setDueTo(LocalDate dueTo) {
+        this.dueTo = dueTo;
+    }
+
+    public LocalDate getToday() {
+        return today;
+    }
+
+    public void setToday(LocalDate today) {
+        this.today = today;
+    }
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    // The search term, or null when blank
+    public String effectiveQ() {
+        return q == null || q.isBlank() ? null : q.trim();
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    // Clamp the requested page size to [1, MAX_LIMIT]
+    public int effectiveLimit() {
+        if (limit == null) {
+            return TaskFilterDTO.DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, TaskFilterDTO.MAX_LIMIT));
+    }
+
+    public LocalDate effectiveToday() {
+        return today != null ? today : LocalDate.now();
+    }
+
+    // First due date in range: the later of dueFrom and the window start
+    public LocalDate effectiveDueFrom() {
+        LocalDate windowStart = due == null ? null : switch (due) {
+            case "overdue" -> null;
+            case "today", "week" -> effectiveToday();
+            default -> throw new BadRequestException("Invalid due window: " + due);
+        };
+        return later(dueFrom, windowStart);
+    }
+
+    // Last due date in range: the earlier of dueTo and the window end
+    public LocalDate effectiveDueTo() {
+        LocalDate windowEnd = due == null ? null : switch (due) {
+            case "overdue" -> effectiveToday().minusDays(1);
+            case "today" -> effectiveToday();
+            case "week" -> effectiveToday().with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            default -> throw new BadRequestException("Invalid due window: " + due);
+        };
+        return earlier(dueTo, windowEnd);
+    }
+
+    // Identifies the selected page, for ETags; the date matters since windows move with it
+    public String cacheKey() {
+        return String.join("|", String.valueOf(status), String.valueOf(completed), String.valueOf(due),
+                String.valueOf(dueFrom), String.valueOf(dueTo), String.valueOf(effectiveToday()),
+                String.valueOf(effectiveQ()), String.valueOf(cursor), String.valueOf(effectiveLimit()));
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+}
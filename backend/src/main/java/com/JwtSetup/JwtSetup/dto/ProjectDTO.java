@@ -10,6 +10,7 @@ public class ProjectDTO {
     private Integer totalTasks;
     private Integer completedTasks;
     private Double progress;
+    private java.util.Map<String, Long> statusCounts;
     private java.util.List<TaskDTO> tasks;
 
     // Constructors
@@ -23,6 +24,17 @@ public class ProjectDTO {
         this.description = description;
     }
 
+    // Aggregate-only projection used by ProjectRepository.findSummariesByUserUsername (no task bodies)
+    public ProjectDTO(Long id, String title, String description, String color, java.time.LocalDateTime createdAt,
+                      Long totalTasks, Long completedTasks) {
+        this(id, title, description);
+        this.color = color;
+        this.createdAt = createdAt != null ? createdAt.toString() : null;
+        this.totalTasks = totalTasks.intValue();
+        this.completedTasks = completedTasks.intValue();
+        this.progress = totalTasks > 0 ? (completedTasks * 100.0) / totalTasks : 0.0;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -100,6 +112,14 @@ public class ProjectDTO {
         this.completedTasks = completedTasks;
     }
 
+    public java.util.Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(java.util.Map<String, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+
     public Double getProgress() {
         return progress;
     }
@@ -0,0 +1,76 @@
+package com.JwtSetup.JwtSetup.dto;
+
+/**
+ * A change to a project or one of its tasks. Published by the services as an
+ * application event and pushed as-is to {@code GET /api/projects/{id}/events} subscribers.
+ */
+public class ProjectEventDTO {
+    public enum Type {
+        TASK_CREATED,
+        TASK_UPDATED,
+        TASK_STATUS_CHANGED,
+        TASK_DELETED,
+        TASKS_BULK_CHANGED, // several tasks changed at once; clients should refetch
+        ATTACHMENTS_CHANGED,
+        PROJECT_UPDATED,
+        PROJECT_DELETED
+    }
+
+    private Long id; // assigned by ProjectEventBroadcaster, sent as the SSE event id
+    private Type type;
+    private Long projectId;
+    private Long taskId;
+    private TaskDTO task;
+
+    // Constructors
+    public ProjectEventDTO() {
+    }
+
+    public ProjectEventDTO(Type type, Long projectId, Long taskId, TaskDTO task) {
+        this.type = type;
+        this.projectId = projectId;
+        this.taskId = taskId;
+        this.task = task;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public TaskDTO getTask() {
+        return task;
+    }
+
+    public void setTask(TaskDTO task) {
+        this.task = task;
+    }
+}
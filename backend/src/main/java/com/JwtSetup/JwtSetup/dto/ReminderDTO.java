@@ -0,0 +1,67 @@
+package com.JwtSetup.JwtSetup.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A task coming due, as handed to a {@code ReminderSink}: who to remind ({@code ownerId}) and about what.
+ */
+public class ReminderDTO {
+    private Long taskId;
+    private Long projectId;
+    private Long ownerId;
+    private String title;
+    private LocalDate dueDate;
+
+    // Constructors
+    public ReminderDTO() {
+    }
+
+    public ReminderDTO(Long taskId, Long projectId, Long ownerId, String title, LocalDate dueDate) {
+        this.taskId = taskId;
+        this.projectId = projectId;
+        this.ownerId = ownerId;
+        this.title = title;
+        this.dueDate = dueDate;
+    }
+
+    // Getters and Setters
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+}
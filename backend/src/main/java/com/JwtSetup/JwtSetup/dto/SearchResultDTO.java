@@ -0,0 +1,91 @@
+package com.JwtSetup.JwtSetup.dto;
+
+/**
+ * One ranked match of {@code GET /api/search}: a task, or a text attachment of a task
+ * (then {@code filename} is set and {@code title} is the task's title).
+ */
+public class SearchResultDTO {
+    public enum Type {
+        TASK,
+        ATTACHMENT
+    }
+
+    private Type type;
+    private Long projectId;
+    private Long taskId;
+    private String title;
+    private String section;
+    private String filename;
+    private float score;
+
+    // Constructors
+    public SearchResultDTO() {
+    }
+
+    public SearchResultDTO(Type type, Long projectId, Long taskId, String title, String section, String filename, float score) {
+        this.type = type;
+        this.projectId = projectId;
+        this.taskId = taskId;
+        this.title = title;
+        this.section = section;
+        this.filename = filename;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    public void setSection(String section) {
+        this.section = section;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
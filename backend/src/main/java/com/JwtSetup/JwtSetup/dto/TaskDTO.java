@@ -12,6 +12,7 @@ public class TaskDTO {
     private Long projectId;
     private String section;
     private String createdAt;
+    private long attachmentCount;
 
     // Constructors
     public TaskDTO() {
@@ -91,6 +92,14 @@ public class TaskDTO {
         this.createdAt = createdAt;
     }
 
+    public long getAttachmentCount() {
+        return attachmentCount;
+    }
+
+    public void setAttachmentCount(long attachmentCount) {
+        this.attachmentCount = attachmentCount;
+    }
+
     public Long getProjectId() {
         return projectId;
     }
@@ -0,0 +1,108 @@
+package com.JwtSetup.JwtSetup.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Query parameters accepted by the task listing endpoint.
+ * Every filter is optional; the cursor is the opaque {@code nextCursor} of the previous page.
+ */
+public class TaskFilterDTO {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private String status; // NOT_STARTED, IN_PROGRESS, COMPLETED
+    private String section;
+    private Boolean completed;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+    private String sort = "id"; // id or dueDate
+    private String cursor;
+    private Integer limit;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    public void setSection(String section) {
+        this.section = section;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDate getDueFrom() {
+        return dueFrom;
+    }
+
+    public void setDueFrom(LocalDate dueFrom) {
+        this.dueFrom = dueFrom;
+    }
+
+    public LocalDate getDueTo() {
+        return dueTo;
+    }
+
+    public void setDueTo(LocalDate dueTo) {
+        this.dueTo = dueTo;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    // Clamp the requested page size to [1, MAX_LIMIT]
+    public int effectiveLimit() {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // Identifies the selected page, for ETags
+    public String cacheKey() {
+        return String.join("|", String.valueOf(status), String.valueOf(section), String.valueOf(completed),
+                String.valueOf(dueFrom), String.valueOf(dueTo), String.valueOf(sort), String.valueOf(cursor),
+                String.valueOf(effectiveLimit()));
+    }
+
+    public boolean isSortedByDueDate() {
+        return "dueDate".equals(sort);
+    }
+}
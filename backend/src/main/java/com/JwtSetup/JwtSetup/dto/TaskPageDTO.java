@@ -0,0 +1,38 @@
+package com.JwtSetup.JwtSetup.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated task listing.
+ * {@code nextCursor} is null on the last page.
+ */
+public class TaskPageDTO {
+    private List<TaskDTO> items;
+    private String nextCursor;
+
+    // Constructors
+    public TaskPageDTO() {
+    }
+
+    public TaskPageDTO(List<TaskDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<TaskDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<TaskDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
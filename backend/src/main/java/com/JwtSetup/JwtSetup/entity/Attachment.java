@@ -0,0 +1,51 @@
+package com.JwtSetup.JwtSetup.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A file attached to a task. The bytes live in a shared {@link AttachmentBlob};
+ * file names are unique per task, and that index also serves listing and counting by task.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "attachments", indexes = {
+        @Index(name = "uk_attachments_task_filename", columnList = "task_id, filename", unique = true),
+        @Index(name = "idx_attachments_blob", columnList = "blob_sha256"),
+        @Index(name = "idx_attachments_uploaded_by", columnList = "uploaded_by")
+})
+public class Attachment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "task_id", nullable = false)
+    private Task task;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_sha256", nullable = false)
+    private AttachmentBlob blob;
+
+    @Column(nullable = false)
+    private String filename;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "uploaded_at", nullable = false)
+    private Instant uploadedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by")
+    private User uploadedBy;
+}
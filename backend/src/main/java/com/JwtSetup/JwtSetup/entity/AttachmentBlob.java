@@ -0,0 +1,34 @@
+package com.JwtSetup.JwtSetup.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One stored file content, addressed by its SHA-256. {@code refCount} is the number of
+ * attachments pointing at it; unreferenced blobs are removed by the attachment garbage collector.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "attachment_blobs", indexes = {
+        @Index(name = "idx_attachment_blobs_ref_count", columnList = "ref_count")
+})
+public class AttachmentBlob {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,7 +16,15 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "projects")
+// Only changed columns are written, so editing a project never overwrites concurrently updated counters
+@DynamicUpdate
+// Counter updates go through the entity, so they keep the cached entry current (see ProjectCounterService)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projects")
+@Table(name = "projects", indexes = {
+        // A user's projects in id order, with the version for ETags read from the index
+        @Index(name = "idx_projects_user_version", columnList = "user_id, id, version")
+})
 public class Project {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -29,6 +40,27 @@ public class Project {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Bumped on every project or task write; drives optimistic locking and ETags
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // Task counters, kept in step by TaskService (see ProjectCounterService)
+    @Column(name = "total_tasks", nullable = false)
+    private long totalTasks;
+
+    @Column(name = "completed_tasks", nullable = false)
+    private long completedTasks;
+
+    @Column(name = "not_started_tasks", nullable = false)
+    private long notStartedTasks;
+
+    @Column(name = "in_progress_tasks", nullable = false)
+    private long inProgressTasks;
+
+    @Column(name = "status_completed_tasks", nullable = false)
+    private long statusCompletedTasks;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
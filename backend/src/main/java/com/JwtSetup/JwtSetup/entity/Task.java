@@ -1,13 +1,25 @@
 package com.JwtSetup.JwtSetup.entity;
 
 import jakarta.persistence.*;
+
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_project_status", columnList = "project_id, status, id"),
+        @Index(name = "idx_tasks_project_section", columnList = "project_id, section, id"),
+        @Index(name = "idx_tasks_project_completed", columnList = "project_id, completed, id"),
+        @Index(name = "idx_tasks_project_due_date", columnList = "project_id, due_date, id"),
+        @Index(name = "idx_tasks_owner_due_date", columnList = "owner_id, due_date, id"),
+        @Index(name = "idx_tasks_owner_completed_due_date", columnList = "owner_id, completed, due_date, id"),
+        // Reminder scans: open tasks due on a date in id order, reminded_for read from the index
+        @Index(name = "idx_tasks_completed_due_date", columnList = "completed, due_date, id, reminded_for")
+})
 public class Task {
+    // Pooled sequence (a table on MySQL) instead of IDENTITY, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -26,10 +38,25 @@ public class Task {
 
     private String section;
 
+    // Concurrent writers of the same task conflict instead of double-counting project counters
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
     private Project project;
 
+    // Owner of the project, copied so a user's tasks across projects are one index range.
+    // Projects never change hands, so it is set once on insert (older rows: the V3 migration)
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    // Due date the last reminder was sent for; moving the due date makes the task due a reminder again.
+    // Written only by TaskRepository.markReminded, so an edit never puts back a value the reminder job just set
+    @Column(name = "reminded_for", insertable = false, updatable = false)
+    private LocalDate remindedFor;
+
     // Constructors
     public Task() {
     }
@@ -106,6 +133,29 @@ public class Task {
         this.project = project;
     }
 
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public LocalDate getRemindedFor() {
+        return remindedFor;
+    }
+
+    @PrePersist
+    void copyOwner() {
+        if (ownerId == null && project != null && project.getUser() != null) {
+            ownerId = project.getUser().getId();
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getSection() {
         return section;
     }
@@ -0,0 +1,50 @@
+package com.JwtSetup.JwtSetup.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Outbox of sent reminders, written in the transaction that claims them. A consumer (mailer,
+ * push gateway) reads rows with {@code delivered_at} unset in id order and sets it once done.
+ * The unique (task_id, due_date) key backs the claim: one reminder per task and due date.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "task_reminders", indexes = {
+        @Index(name = "uk_task_reminders_task_due_date", columnList = "task_id, due_date", unique = true),
+        @Index(name = "idx_task_reminders_delivered_at", columnList = "delivered_at, id")
+})
+public class TaskReminder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain ids rather than associations: the outbox outlives deleted tasks
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "delivered_at")
+    private Instant deliveredAt;
+}
@@ -2,11 +2,17 @@ package com.JwtSetup.JwtSetup.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+// Changes evict UserDetailsCache after commit (UserCacheEvictionListener, a Hibernate event listener)
+// Second-level cache region "users" (see CacheConfig); the roles collection has its own
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users")
 @Data
 public class User {
@@ -20,15 +26,14 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @Column
-    private String refreshToken;
-
     private boolean enabled = true;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users.roles")
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "role_id"))
+            inverseJoinColumns = @JoinColumn(name = "role_id"),
+            indexes = @Index(name = "idx_user_roles_user_role", columnList = "user_id, role_id"))
     private Set<Role> roles = new HashSet<>();
 
 
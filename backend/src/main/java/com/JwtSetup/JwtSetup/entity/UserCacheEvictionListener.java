@@ -0,0 +1,114 @@
+package com.JwtSetup.JwtSetup.entity;
+
+import com.JwtSetup.JwtSetup.service.UserDetailsCache;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drops the cached account state whenever a user is updated or deleted, or its roles change,
+ * so a disabled account or a role change takes effect on the next request.
+ * <p>
+ * Hibernate events fire at flush, before the transaction commits; eviction waits for the commit,
+ * otherwise a concurrent request could reload and cache the old row in between. A change to the
+ * roles collection alone does not update the users row, hence the collection events.
+ */
+@Component
+public class UserCacheEvictionListener implements HibernatePropertiesCustomizer, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private final ObjectProvider<UserDetailsCache> userDetailsCache;
+
+    public UserCacheEvictionListener(ObjectProvider<UserDetailsCache> userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    // Registers this listener with the session factory Spring Boot builds
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                                  SessionFactoryImplementor sessionFactory) {
+                EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+                UserCacheEvictionListener listener = UserCacheEvictionListener.this;
+                registry.appendListeners(EventType.POST_UPDATE, listener);
+                registry.appendListeners(EventType.POST_DELETE, listener);
+                registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+                registry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+                registry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                     SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(integrator));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        evictAfterCommit(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        evictAfterCommit(event.getEntity());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        evictAfterCommit(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        evictAfterCommit(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        evictAfterCommit(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void evictAfterCommit(Object entity) {
+        if (!(entity instanceof User user)) {
+            return;
+        }
+        String username = user.getUsername();
+        userDetailsCache.ifAvailable(cache -> {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.evict(username);
+                    }
+                });
+            } else {
+                cache.evict(username);
+            }
+        });
+    }
+}
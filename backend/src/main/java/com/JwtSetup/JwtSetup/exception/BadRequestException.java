@@ -0,0 +1,8 @@
+package com.JwtSetup.JwtSetup.exception;
+
+// Malformed client input (query parameters, cursors, request bodies); answered with 400
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
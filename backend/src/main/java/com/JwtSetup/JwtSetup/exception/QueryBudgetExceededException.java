@@ -0,0 +1,8 @@
+package com.JwtSetup.JwtSetup.exception;
+
+// Thrown after the response when queries.budget.mode=fail (tests); never mapped to a response
+public class QueryBudgetExceededException extends IllegalStateException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.JwtSetup.JwtSetup.repo;
+
+import com.JwtSetup.JwtSetup.entity.AttachmentBlob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+    // Holds the row lock until the uploader commits; returns 0 if the blob is not stored yet
+    @Modifying
+    @Query("update AttachmentBlob b set b.refCount = b.refCount + 1 where b.sha256 = :sha256")
+    int acquire(@Param("sha256") String sha256);
+
+    @Modifying
+    @Query("update AttachmentBlob b set b.refCount = b.refCount - :count where b.sha256 = :sha256")
+    int release(@Param("sha256") String sha256, @Param("count") long count);
+
+    @Query("select b.sha256 from AttachmentBlob b where b.refCount <= 0 order by b.sha256")
+    List<String> findUnreferenced(Limit limit);
+
+    // Returns 0 if the blob was acquired again since it was found unreferenced
+    @Modifying
+    @Query("delete from AttachmentBlob b where b.sha256 = :sha256 and b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+}
@@ -0,0 +1,67 @@
+package com.JwtSetup.JwtSetup.repo;
+
+import com.JwtSetup.JwtSetup.dto.AttachmentDTO;
+import com.JwtSetup.JwtSetup.entity.Attachment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+    // Ownership check and listing in one query; a task the user does not own simply lists nothing
+    @Query("select new com.JwtSetup.JwtSetup.dto.AttachmentDTO(a.id, t.id, a.filename, a.size, a.blob.sha256, "
+            + "a.contentType, a.uploadedAt, u.username) "
+            + "from Attachment a join a.task t left join a.uploadedBy u "
+            + "where t.id = :taskId and t.project.id = :projectId and t.project.user.username = :username "
+            + "order by a.filename")
+    List<AttachmentDTO> findByTaskForUser(@Param("projectId") Long projectId, @Param("taskId") Long taskId,
+                                          @Param("username") String username);
+
+    @Query("select new com.JwtSetup.JwtSetup.dto.AttachmentDTO(a.id, t.id, a.filename, a.size, a.blob.sha256, "
+            + "a.contentType, a.uploadedAt, u.username) "
+            + "from Attachment a join a.task t left join a.uploadedBy u "
+            + "where t.id = :taskId and t.project.id = :projectId and t.project.user.username = :username "
+            + "and a.filename = :filename")
+    Optional<AttachmentDTO> findOneForUser(@Param("projectId") Long projectId, @Param("taskId") Long taskId,
+                                           @Param("filename") String filename, @Param("username") String username);
+
+    @Query("select a.task.id, count(a) from Attachment a where a.task.id in :taskIds group by a.task.id")
+    List<Object[]> countByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    // Search index feed: plain-text attachments of one task, or all of them in id order for a rebuild
+    @Query("select a.id as id, t.project.id as projectId, t.id as taskId, a.filename as filename, "
+            + "a.blob.sha256 as sha256 from Attachment a join a.task t "
+            + "where t.id = :taskId and a.contentType like 'text/plain%'")
+    List<AttachmentSearchRow> findTextSearchRowsByTaskId(@Param("taskId") Long taskId);
+
+    @Query("select a.id as id, t.project.id as projectId, t.id as taskId, a.filename as filename, "
+            + "a.blob.sha256 as sha256 from Attachment a join a.task t "
+            + "where a.id > :afterId and a.contentType like 'text/plain%' order by a.id")
+    List<AttachmentSearchRow> findTextSearchRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    boolean existsByTaskIdAndFilename(Long taskId, String filename);
+
+    Optional<Attachment> findByTaskIdAndFilename(Long taskId, String filename);
+
+    // Blob references held by the given tasks, as (sha256, count) rows
+    @Query("select a.blob.sha256, count(a) from Attachment a where a.task.id in :taskIds group by a.blob.sha256")
+    List<Object[]> countBlobReferencesByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query("select a.blob.sha256, count(a) from Attachment a where a.task.project.id = :projectId group by a.blob.sha256")
+    List<Object[]> countBlobReferencesByProjectId(@Param("projectId") Long projectId);
+
+    @Modifying
+    @Query("delete from Attachment a where a.task.id in :taskIds")
+    int deleteByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying
+    @Query("delete from Attachment a where a.task.id in (select t.id from Task t where t.project.id = :projectId)")
+    int deleteByProjectId(@Param("projectId") Long projectId);
+}
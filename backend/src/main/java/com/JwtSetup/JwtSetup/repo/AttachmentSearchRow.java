@@ -0,0 +1,14 @@
+package com.JwtSetup.JwtSetup.repo;
+
+// A text attachment to index for search, with the blob holding its content
+public interface AttachmentSearchRow {
+    Long getId();
+
+    Long getProjectId();
+
+    Long getTaskId();
+
+    String getFilename();
+
+    String getSha256();
+}
@@ -0,0 +1,8 @@
+package com.JwtSetup.JwtSetup.repo;
+
+// Projection used to derive ETags without loading projects
+public interface ProjectVersion {
+    Long getId();
+
+    long getVersion();
+}
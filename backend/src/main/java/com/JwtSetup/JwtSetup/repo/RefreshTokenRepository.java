@@ -0,0 +1,35 @@
+package com.JwtSetup.JwtSetup.repo;
+
+import com.JwtSetup.JwtSetup.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    // Locks the row, so concurrent refreshes with the same token run one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = "user")
+    Optional<RefreshToken> findForUpdateByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.user.id = :userId")
+    int revokeAllForUser(@Param("userId") Long userId);
+
+    @Query("select r.id from RefreshToken r where r.expiresAt < :now order by r.id")
+    List<Long> findExpiredIds(@Param("now") Instant now, Limit limit);
+}
@@ -0,0 +1,20 @@
+package com.JwtSetup.JwtSetup.repo;
+
+import com.JwtSetup.JwtSetup.entity.TaskReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskReminderRepository extends JpaRepository<TaskReminder, Long> {
+    List<TaskReminder> findByTaskIdOrderByDueDate(Long taskId);
+
+    // Tasks already queued for a due date (one probe of uk_task_reminders_task_due_date each)
+    @Query("select r.taskId from TaskReminder r where r.dueDate = :dueDate and r.taskId in :taskIds")
+    List<Long> findQueuedTaskIds(@Param("dueDate") LocalDate dueDate, @Param("taskIds") Collection<Long> taskIds);
+}
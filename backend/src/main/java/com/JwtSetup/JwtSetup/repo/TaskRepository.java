@@ -1,17 +1,66 @@
 package com.JwtSetup.JwtSetup.repo;
 
 import com.JwtSetup.JwtSetup.entity.Task;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
     List<Task> findByProjectId(Long projectId);
 
-    List<Task> findByProjectIdAndProjectUserUsername(Long projectId, String username);
+    // Filters on tasks.project_id itself; the derived query left-joins projects and filters on projects.id
+    @Query("select t from Task t where t.project.id = :projectId and t.project.user.username = :username")
+    List<Task> findByProjectIdAndProjectUserUsername(@Param("projectId") Long projectId, @Param("username") String username);
 
     Optional<Task> findByIdAndProjectIdAndProjectUserUsername(Long id, Long projectId, String username);
+
+    boolean existsByIdAndProjectIdAndProjectUserUsername(Long id, Long projectId, String username);
+
+    @Query("select p.user.id from Task t join t.project p where t.id = :taskId and p.id = :projectId")
+    Optional<Long> findOwnerId(@Param("taskId") Long taskId, @Param("projectId") Long projectId);
+
+    @Query("select p.user.id from Task t join t.project p "
+            + "where t.id = :taskId and p.id = :projectId and p.user.username = :username")
+    Optional<Long> findOwnerId(@Param("taskId") Long taskId, @Param("projectId") Long projectId,
+                               @Param("username") String username);
+
+    List<Task> findByProjectIdAndIdIn(Long projectId, Collection<Long> ids);
+
+    // Reminders: open tasks due on a date and not yet reminded for it, in id order
+    @Query("select t.id from Task t where t.completed = false and t.dueDate = :dueDate and t.id > :afterId "
+            + "and (t.remindedFor is null or t.remindedFor <> :dueDate) order by t.id")
+    List<Long> findReminderCandidates(@Param("dueDate") LocalDate dueDate, @Param("afterId") Long afterId, Limit limit);
+
+    // Row locks make concurrent claims of the same tasks wait, then see them already reminded
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Task t where t.id in :ids and t.completed = false and t.dueDate = :dueDate "
+            + "and (t.remindedFor is null or t.remindedFor <> :dueDate)")
+    List<Task> lockReminderCandidates(@Param("ids") Collection<Long> ids, @Param("dueDate") LocalDate dueDate);
+
+    // Bulk update: leaves the version alone, so a reminder never conflicts with a user's edit;
+    // Task's @DynamicUpdate keeps that edit from writing the column back
+    @Modifying
+    @Query("update Task t set t.remindedFor = :dueDate where t.id in :ids")
+    int markReminded(@Param("ids") Collection<Long> ids, @Param("dueDate") LocalDate dueDate);
+
+    // Search index feed: changed tasks by id, or all tasks in id order for a rebuild
+    @Query("select t.id as id, t.project.id as projectId, t.title as title, t.description as description, "
+            + "t.section as section from Task t where t.id in :ids")
+    List<TaskSearchRow> findSearchRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select t.id as id, t.project.id as projectId, t.title as title, t.description as description, "
+            + "t.section as section from Task t where t.id > :afterId order by t.id")
+    List<TaskSearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Limit limit);
 }
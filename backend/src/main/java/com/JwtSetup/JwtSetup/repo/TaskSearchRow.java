@@ -0,0 +1,14 @@
+package com.JwtSetup.JwtSetup.repo;
+
+// Task fields indexed for search
+public interface TaskSearchRow {
+    Long getId();
+
+    Long getProjectId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getSection();
+}
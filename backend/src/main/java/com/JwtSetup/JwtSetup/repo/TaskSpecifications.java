@@ -0,0 +1,90 @@
+package com.JwtSetup.JwtSetup.repo;
+
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.TaskStatus;
+import com.JwtSetup.JwtSetup.entity.User;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Predicates for the filtered task listings. Each one maps onto a
+ * (project_id, column, id) or, across projects, an (owner_id, ..., due_date, id) index declared on {@link Task}.
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> inProject(Long projectId) {
+        return (root, query, cb) -> cb.equal(root.get("project").get("id"), projectId);
+    }
+
+    // Tasks of every project of the user; the owner id is resolved in a subquery, not a join
+    public static Specification<Task> ownedBy(String username) {
+        return (root, query, cb) -> {
+            Subquery<Long> owner = query.subquery(Long.class);
+            Root<User> user = owner.from(User.class);
+            owner.select(user.get("id")).where(cb.equal(user.get("username"), username));
+            return cb.equal(root.get("ownerId"), owner);
+        };
+    }
+
+    public static Specification<Task> hasStatusIn(Collection<TaskStatus> statuses) {
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<Task> hasStatus(TaskStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Task> inSection(String section) {
+        return (root, query, cb) -> cb.equal(root.get("section"), section);
+    }
+
+    public static Specification<Task> isCompleted(Boolean completed) {
+        return (root, query, cb) -> cb.equal(root.get("completed"), completed);
+    }
+
+    public static Specification<Task> dueOnOrAfter(LocalDate from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), from);
+    }
+
+    public static Specification<Task> dueOnOrBefore(LocalDate to) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dueDate"), to);
+    }
+
+    public static Specification<Task> hasDueDate() {
+        return (root, query, cb) -> cb.isNotNull(root.get("dueDate"));
+    }
+
+    public static Specification<Task> hasNoDueDate() {
+        return (root, query, cb) -> cb.isNull(root.get("dueDate"));
+    }
+
+    // Title, description or project title contains the term, ignoring case; a substring scan, not an index range
+    public static Specification<Task> matches(String term) {
+        String pattern = "%" + term.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("title")), pattern, '\\'),
+                cb.like(cb.lower(root.get("description")), pattern, '\\'),
+                cb.like(cb.lower(root.get("project").get("title")), pattern, '\\'));
+    }
+
+    // Keyset position for ordering by id
+    public static Specification<Task> idAfter(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    // Keyset position for ordering by (dueDate, id)
+    public static Specification<Task> dueDateAndIdAfter(LocalDate dueDate, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("dueDate"), dueDate),
+                cb.and(cb.equal(root.get("dueDate"), dueDate), cb.greaterThan(root.get("id"), id)));
+    }
+}
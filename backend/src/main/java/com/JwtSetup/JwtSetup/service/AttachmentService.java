@@ -0,0 +1,336 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.AttachmentDTO;
+import com.JwtSetup.JwtSetup.dto.ProjectEventDTO;
+import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.entity.Attachment;
+import com.JwtSetup.JwtSetup.entity.AttachmentBlob;
+import com.JwtSetup.JwtSetup.repo.AttachmentBlobRepository;
+import com.JwtSetup.JwtSetup.repo.AttachmentRepository;
+import com.JwtSetup.JwtSetup.repo.TaskRepository;
+import com.JwtSetup.JwtSetup.repo.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Task attachments: metadata rows in {@code attachments}, bytes in the content-addressed
+ * {@link AttachmentStore}. Identical content is stored once and reference counted;
+ * uploads are hashed before any transaction starts, so no connection is held while streaming.
+ */
+@Service
+public class AttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentService.class);
+
+    private static final int COUNT_CHUNK = 1000;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private AttachmentBlobRepository attachmentBlobRepository;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectCounterService projectCounterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${attachments.root:uploads}")
+    private String root;
+
+    @Value("${attachments.gcBatchSize:500}")
+    private int gcBatchSize;
+
+    /**
+     * Stores an upload for a task. A name already used on the task gets a " (n)" suffix
+     * instead of replacing the existing attachment.
+     */
+    public AttachmentDTO upload(Long projectId, Long taskId, String filename, InputStream content, String username) throws IOException {
+        Long ownerId = taskRepository.findOwnerId(taskId, projectId, username)
+                .orElseThrow(() -> new RuntimeException("Task not found or unauthorized"));
+        AttachmentDTO attachment = store(projectId, taskId, ownerId, filename, content);
+        attachment.setUploadedBy(username);
+        meterRegistry.counter("attachments.bytes", "direction", "in", "kind", "file").increment(attachment.getSize());
+        return attachment;
+    }
+
+    // Metadata of a task's attachments, ordered by name
+    public List<AttachmentDTO> list(Long projectId, Long taskId, String username) {
+        return attachmentRepository.findByTaskForUser(projectId, taskId, username);
+    }
+
+    public Optional<AttachmentDTO> findAttachment(Long projectId, Long taskId, String filename, String username) {
+        return attachmentRepository.findOneForUser(projectId, taskId, filename, username);
+    }
+
+    // Sets attachmentCount on each task, with one grouped query per chunk of tasks
+    public void fillAttachmentCounts(Collection<TaskDTO> tasks) {
+        Map<Long, TaskDTO> byId = new HashMap<>();
+        tasks.forEach(task -> byId.put(task.getId(), task));
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += COUNT_CHUNK) {
+            for (Object[] row : attachmentRepository.countByTaskIds(ids.subList(from, Math.min(from + COUNT_CHUNK, ids.size())))) {
+                byId.get((Long) row[0]).setAttachmentCount((Long) row[1]);
+            }
+        }
+    }
+
+    public Path blobPath(AttachmentDTO attachment) {
+        return attachmentStore.blobPath(attachment.getSha256());
+    }
+
+    // Returns false if the task has no attachment with that name
+    @Transactional
+    public boolean delete(Long projectId, Long taskId, String filename, String username) {
+        checkTask(projectId, taskId, username);
+        Optional<Attachment> attachment = attachmentRepository.findByTaskIdAndFilename(taskId, filename);
+        attachment.ifPresent(a -> {
+            attachmentRepository.delete(a);
+            attachmentBlobRepository.release(a.getBlob().getSha256(), 1);
+            attachmentsChanged(projectId, taskId);
+        });
+        return attachment.isPresent();
+    }
+
+    // Drops the attachments of tasks about to be deleted; their blobs are collected later
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseTasks(Collection<Long> taskIds) {
+        release(attachmentRepository.countBlobReferencesByTaskIds(taskIds));
+        attachmentRepository.deleteByTaskIds(taskIds);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseProject(Long projectId) {
+        release(attachmentRepository.countBlobReferencesByProjectId(projectId));
+        attachmentRepository.deleteByProjectId(projectId);
+    }
+
+    /**
+     * Deletes unreferenced blobs, row then file, each in its own transaction. The row lock taken
+     * by the delete makes a concurrent upload of the same content wait, then re-create both.
+     */
+    @Scheduled(fixedDelayString = "${attachments.gcIntervalMs:3600000}", initialDelayString = "${attachments.gcIntervalMs:3600000}")
+    @Transactional(propagation = Propagation.NEVER)
+    public int collectGarbage() {
+        int collected = 0;
+        List<String> hashes;
+        int collectedInBatch;
+        do {
+            hashes = attachmentBlobRepository.findUnreferenced(Limit.of(gcBatchSize));
+            collectedInBatch = 0;
+            for (String sha256 : hashes) {
+                try {
+                    Boolean deleted = transactionTemplate.execute(status -> {
+                        if (attachmentBlobRepository.deleteIfUnreferenced(sha256) == 0) {
+                            return false;
+                        }
+                        try {
+                            attachmentStore.delete(sha256);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return true;
+                    });
+                    if (Boolean.TRUE.equals(deleted)) {
+                        collectedInBatch++;
+                    }
+                } catch (UncheckedIOException e) {
+                    log.warn("Could not delete attachment blob {}", sha256, e);
+                }
+            }
+            collected += collectedInBatch;
+        } while (hashes.size() == gcBatchSize && collectedInBatch > 0);
+        if (collected > 0) {
+            log.info("Collected {} unreferenced attachment blobs", collected);
+        }
+        return collected;
+    }
+
+    // One-time move of files from the old uploads/{projectId}/{taskId}/ layout into the store
+    @EventListener(ApplicationReadyEvent.class)
+    public void importLegacyUploads() {
+        Path rootDir = Paths.get(root);
+        if (!Files.isDirectory(rootDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.find(rootDir, 3, (path, attrs) -> attrs.isRegularFile()
+                && rootDir.relativize(path).getNameCount() == 3
+                && isNumeric(path.getParent().getFileName()) && isNumeric(path.getParent().getParent().getFileName()))) {
+            files.forEach(this::importLegacyUpload);
+        } catch (IOException e) {
+            log.warn("Could not scan {} for legacy attachments", rootDir, e);
+        }
+    }
+
+    private void importLegacyUpload(Path file) {
+        Long taskId = Long.valueOf(file.getParent().getFileName().toString());
+        Long projectId = Long.valueOf(file.getParent().getParent().getFileName().toString());
+        try {
+            // Files of tasks that no longer exist are left where they are
+            Optional<Long> ownerId = taskRepository.findOwnerId(taskId, projectId);
+            if (ownerId.isEmpty()) {
+                return;
+            }
+            try (InputStream content = Files.newInputStream(file)) {
+                store(projectId, taskId, ownerId.get(), file.getFileName().toString(), content);
+            }
+            Files.delete(file);
+            deleteIfEmpty(file.getParent());
+            deleteIfEmpty(file.getParent().getParent());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not import legacy attachment {}", file, e);
+        }
+    }
+
+    private AttachmentDTO store(Long projectId, Long taskId, Long uploaderId, String filename, InputStream content) throws IOException {
+        AttachmentStore.StagedBlob staged = attachmentStore.stage(content);
+        try {
+            try {
+                return transactionTemplate.execute(status -> record(projectId, taskId, uploaderId, filename, staged));
+            } catch (DataIntegrityViolationException e) {
+                // Another upload inserted the same blob (or name) first; the retry sees its row
+                return transactionTemplate.execute(status -> record(projectId, taskId, uploaderId, filename, staged));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            attachmentStore.discard(staged);
+        }
+    }
+
+    private AttachmentDTO record(Long projectId, Long taskId, Long uploaderId, String filename, AttachmentStore.StagedBlob staged) {
+        // Acquire before placing the file so garbage collection cannot remove it underneath us
+        boolean inserted = attachmentBlobRepository.acquire(staged.sha256()) == 0;
+        if (inserted) {
+            AttachmentBlob blob = new AttachmentBlob();
+            blob.setSha256(staged.sha256());
+            blob.setSize(staged.size());
+            blob.setRefCount(1);
+            blob.setCreatedAt(Instant.now());
+            attachmentBlobRepository.saveAndFlush(blob);
+            // A file placed for a row that is rolled back would be on disk with nothing referencing it
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        try {
+                            attachmentStore.uncommit(staged);
+                        } catch (IOException e) {
+                            log.warn("Could not remove attachment blob {} after rollback", staged.sha256(), e);
+                        }
+                    }
+                }
+            });
+        }
+        // Placed before the commit, so a failure rolls the rows back instead of leaving them without a file
+        try {
+            attachmentStore.commit(staged);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Attachment attachment = new Attachment();
+        attachment.setTask(taskRepository.getReferenceById(taskId));
+        attachment.setBlob(attachmentBlobRepository.getReferenceById(staged.sha256()));
+        attachment.setFilename(uniqueFilename(taskId, filename));
+        attachment.setSize(staged.size());
+        attachment.setContentType(MediaTypeFactory.getMediaType(filename)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        attachment.setUploadedAt(Instant.now());
+        attachment.setUploadedBy(userRepository.getReferenceById(uploaderId));
+        attachmentRepository.saveAndFlush(attachment);
+        attachmentsChanged(projectId, taskId);
+        eventPublisher.publishEvent(new AttachmentStoredEvent(staged.sha256(), attachment.getContentType(), staged.size()));
+        return new AttachmentDTO(attachment.getId(), taskId, attachment.getFilename(), attachment.getSize(),
+                staged.sha256(), attachment.getContentType(), attachment.getUploadedAt(), null);
+    }
+
+    // Task responses embed attachment counts, so their ETags (project version) must change too
+    private void attachmentsChanged(Long projectId, Long taskId) {
+        projectCounterService.bumpVersion(projectId);
+        eventPublisher.publishEvent(new ProjectEventDTO(ProjectEventDTO.Type.ATTACHMENTS_CHANGED, projectId, taskId, null));
+    }
+
+    private void release(List<Object[]> references) {
+        for (Object[] reference : references) {
+            attachmentBlobRepository.release((String) reference[0], (Long) reference[1]);
+        }
+    }
+
+    private String uniqueFilename(Long taskId, String filename) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        String ext = dot > 0 ? filename.substring(dot) : "";
+        String candidate = filename;
+        for (int n = 1; attachmentRepository.existsByTaskIdAndFilename(taskId, candidate); n++) {
+            candidate = base + " (" + n + ")" + ext;
+        }
+        return candidate;
+    }
+
+    private void checkTask(Long projectId, Long taskId, String username) {
+        if (!taskRepository.existsByIdAndProjectIdAndProjectUserUsername(taskId, projectId, username)) {
+            throw new RuntimeException("Task not found or unauthorized");
+        }
+    }
+
+    private static boolean isNumeric(Path name) {
+        return name != null && name.toString().chars().allMatch(Character::isDigit);
+    }
+
+    private static void deleteIfEmpty(Path dir) throws IOException {
+        try (Stream<Path> entries = Files.list(dir)) {
+            if (entries.findAny().isEmpty()) {
+                Files.delete(dir);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.JwtSetup.JwtSetup.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed blob directory: {@code {root}/blobs/ab/cd/abcd...} named by SHA-256.
+ * Uploads are staged under {@code {root}/tmp} while being hashed, then renamed into place,
+ * so a blob file is always complete. Reference counting lives in {@code attachment_blobs}.
+ */
+@Service
+public class AttachmentStore {
+
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final Path blobDir;
+
+    private final Path tmpDir;
+
+    public AttachmentStore(@Value("${attachments.root:uploads}") String root) {
+        this.blobDir = Paths.get(root).resolve("blobs");
+        this.tmpDir = Paths.get(root).resolve("tmp");
+    }
+
+    public record StagedBlob(Path file, String sha256, long size) {
+    }
+
+    // Streams the content to a temp file through the digest, in channel-sized transfers
+    public StagedBlob stage(InputStream content) throws IOException {
+        MessageDigest sha256 = newDigest();
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(content, sha256));
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = out.transferFrom(in, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+            return new StagedBlob(tmp, HexFormat.of().formatHex(sha256.digest()), position);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    // Moves a staged file into place unless identical content is already stored
+    public void commit(StagedBlob staged) throws IOException {
+        Path target = blobPath(staged.sha256());
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(staged.file(), target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Undoes commit for a rolled-back upload: the blob goes back to the staged file, for a retry to place again
+    public void uncommit(StagedBlob staged) throws IOException {
+        Path target = blobPath(staged.sha256());
+        if (Files.exists(target)) {
+            Files.move(target, staged.file(), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    // Removes the staged file if commit did not consume it
+    public void discard(StagedBlob staged) {
+        try {
+            Files.deleteIfExists(staged.file());
+        } catch (IOException ignored) { /* leftover temp files are harmless */ }
+    }
+
+    public Path blobPath(String sha256) {
+        return blobDir.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    // Derived file kept next to a blob, e.g. {sha256}.thumb.jpg
+    public Path variantPath(String sha256, String variant) {
+        return blobPath(sha256).resolveSibling(sha256 + "." + variant);
+    }
+
+    // Deletes a blob and its variants
+    public void delete(String sha256) throws IOException {
+        Path blob = blobPath(sha256);
+        if (Files.isDirectory(blob.getParent())) {
+            try (DirectoryStream<Path> variants = Files.newDirectoryStream(blob.getParent(), sha256 + ".*")) {
+                for (Path variant : variants) {
+                    Files.deleteIfExists(variant);
+                }
+            }
+        }
+        Files.deleteIfExists(blob);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.JwtSetup.JwtSetup.service;
+
+/**
+ * Published when an attachment row is written; listeners run after the transaction commits.
+ */
+public record AttachmentStoredEvent(String sha256, String contentType, long size) {
+}
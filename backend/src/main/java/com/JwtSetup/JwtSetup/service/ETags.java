@@ -0,0 +1,30 @@
+package com.JwtSetup.JwtSetup.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds strong ETag values from version numbers, never from response bodies.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    // Short, stable digest of the given parts (first 16 bytes of SHA-256)
+    public static String digest(String... parts) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                md.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+            }
+            byte[] hash = md.digest();
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
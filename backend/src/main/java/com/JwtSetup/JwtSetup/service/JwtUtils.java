@@ -1,13 +1,21 @@
 package com.JwtSetup.JwtSetup.service;
 
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
@@ -21,16 +29,57 @@ public class JwtUtils {
     @Value("${jwt.refreshTokenExpirationMs}")
     private int jwtRefreshExpirationMs;
 
-    private final PasswordEncoder passwordEncoder;
+    private final VerifiedTokenCache tokenCache;
 
-    public JwtUtils(PasswordEncoder passwordEncoder) {
-        this.passwordEncoder = passwordEncoder;
+    // Whole lookups (cache hits included) and signature checks on cache misses
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+    private final Timer verificationTimer;
+
+    // Thread-safe, built once instead of per call
+    private JwtParser jwtParser;
+
+    public JwtUtils(VerifiedTokenCache tokenCache, MeterRegistry meterRegistry) {
+        this.tokenCache = tokenCache;
+        this.validTimer = Timer.builder("auth.jwt.validation").tag("outcome", "valid")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.invalidTimer = Timer.builder("auth.jwt.validation").tag("outcome", "invalid")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.verificationTimer = Timer.builder("auth.jwt.verification")
+                .publishPercentileHistogram().register(meterRegistry);
+    }
+
+    @PostConstruct
+    void initParser() {
+        jwtParser = Jwts.parserBuilder().setSigningKey(jwtSecret).build();
     }
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_FAMILY_ID = "fid";
+    public static final String CLAIM_TYPE = "typ";
+    public static final String TYPE_REFRESH = "refresh";
+
     public String generateAccessToken(Authentication authentication) {
+        return generateAccessToken(authentication, null);
+    }
+
+    // familyId ties the access token to the refresh-token family (device) it was issued with
+    public String generateAccessToken(Authentication authentication, String familyId) {
         if (authentication.getPrincipal() instanceof UserDetails) {
             UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-            return generateToken(userPrincipal.getUsername(), jwtAccessExpirationMs);
+            // Embed id and roles so requests can be authenticated without loading the user
+            Map<String, Object> claims = new HashMap<>();
+            if (userPrincipal instanceof UserDetailsImpl) {
+                claims.put(CLAIM_USER_ID, ((UserDetailsImpl) userPrincipal).getId());
+            }
+            if (familyId != null) {
+                claims.put(CLAIM_FAMILY_ID, familyId);
+            }
+            claims.put(CLAIM_ROLES, userPrincipal.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList()));
+            return generateToken(userPrincipal.getUsername(), claims, jwtAccessExpirationMs);
         } else {
             throw new IllegalArgumentException("Principal is not an instance of UserDetails");
         }
@@ -39,14 +88,18 @@ public class JwtUtils {
     public String generateRefreshToken(Authentication authentication) {
         if (authentication.getPrincipal() instanceof UserDetails) {
             UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-            return generateToken(userPrincipal.getUsername(), jwtRefreshExpirationMs);
+            // Random jti keeps every refresh token unique, even when issued within the same second
+            return generateToken(userPrincipal.getUsername(),
+                    Map.of(CLAIM_TYPE, TYPE_REFRESH, Claims.ID, UUID.randomUUID().toString()),
+                    jwtRefreshExpirationMs);
         } else {
             throw new IllegalArgumentException("Principal is not an instance of UserDetails");
         }
     }
 
-    private String generateToken(String username, int expirationMs) {
+    private String generateToken(String username, Map<String, Object> claims, int expirationMs) {
         return Jwts.builder()
+                .addClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
@@ -54,9 +107,25 @@ public class JwtUtils {
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry once per token lifetime; later calls are served
+     * from {@link VerifiedTokenCache}. Throws {@link JwtException} if the token is invalid.
+     */
+    public Claims getVerifiedClaims(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = tokenCache.get(token, t -> verificationTimer.record(() -> jwtParser.parseClaimsJws(t).getBody()));
+            validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (RuntimeException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
     public boolean validateJwtToken(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
+            getVerifiedClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -64,20 +133,13 @@ public class JwtUtils {
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        return getVerifiedClaims(token).getSubject();
     }
 
-    public String hashRefreshToken(String refreshToken) {
-        return passwordEncoder.encode(refreshToken);
-    }
-
-    public boolean validateRefreshToken(String rawRefreshToken, String hashedRefreshToken) {
-        return passwordEncoder.matches(rawRefreshToken, hashedRefreshToken);
-    }
     public boolean isRefreshToken(String token) {
         try {
-            Claims claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody();
-            return claims.getExpiration().getTime() > System.currentTimeMillis() + jwtAccessExpirationMs;
+            Claims claims = getVerifiedClaims(token);
+            return TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class));
         } catch (Exception e) {
             return false;
         }
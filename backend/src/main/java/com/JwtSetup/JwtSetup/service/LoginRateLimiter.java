@@ -0,0 +1,119 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets in front of sign-in, one per username and one per client address, so password
+ * guessing is throttled before any BCrypt work. A bucket is a single {@link AtomicLong} updated by
+ * CAS: the time at which it would be full again (GCRA). Buckets live in Caffeine caches and expire
+ * once idle long enough to have refilled, so expiry never forgives anything. Each cache is bounded
+ * by {@code security.signin.maxKeys}, though: with more keys than that active within one refill
+ * period, the size bound evicts buckets early and forgives their pending attempts. Keep it well
+ * above the usernames and addresses seen per refill period.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Limit perUser;
+
+    private final Limit perAddress;
+
+    private final Ticker ticker;
+
+    private record Limit(Cache<String, AtomicLong> buckets, long intervalNanos, long burstNanos) {
+    }
+
+    @Autowired
+    public LoginRateLimiter(@Value("${security.signin.perUser.burst:5}") int userBurst,
+                            @Value("${security.signin.perUser.perMinute:5}") int userPerMinute,
+                            @Value("${security.signin.perAddress.burst:30}") int addressBurst,
+                            @Value("${security.signin.perAddress.perMinute:30}") int addressPerMinute,
+                            @Value("${security.signin.maxKeys:100000}") long maxKeys) {
+        this(userBurst, userPerMinute, addressBurst, addressPerMinute, maxKeys, Ticker.systemTicker());
+    }
+
+    LoginRateLimiter(int userBurst, int userPerMinute, int addressBurst, int addressPerMinute, long maxKeys, Ticker ticker) {
+        this.ticker = ticker;
+        this.perUser = limit(userBurst, userPerMinute, maxKeys);
+        this.perAddress = limit(addressBurst, addressPerMinute, maxKeys);
+    }
+
+    private Limit limit(int burst, int perMinute, long maxKeys) {
+        long intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        long burstNanos = intervalNanos * burst;
+        Cache<String, AtomicLong> buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .ticker(ticker)
+                .build();
+        return new Limit(buckets, intervalNanos, burstNanos);
+    }
+
+    // Takes a token from both buckets, or none: throws with the wait until the emptier one allows a try
+    public void acquire(String username, String address) {
+        long now = ticker.read();
+        String addressKey = address == null ? "" : address;
+        String userKey = username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+        // A rejected try costs nothing, so hammering one account does not lock its address out, and back
+        long waitNanos = Math.max(wait(perAddress, addressKey, now), wait(perUser, userKey, now));
+        if (waitNanos == 0) {
+            waitNanos = take(perAddress, addressKey, now);
+            if (waitNanos == 0) {
+                waitNanos = take(perUser, userKey, now);
+                if (waitNanos > 0) {
+                    // Lost a race for the user bucket since the check
+                    refund(perAddress, addressKey);
+                }
+            }
+        }
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException("Too many sign-in attempts, try again later",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+        }
+    }
+
+    // 0 if a token is available, else how long until one is; takes nothing
+    private long wait(Limit limit, String key, long now) {
+        AtomicLong fullAt = limit.buckets().getIfPresent(key);
+        if (fullAt == null) {
+            return 0;
+        }
+        long next = Math.max(fullAt.get(), now) + limit.intervalNanos();
+        return Math.max(0, next - now - limit.burstNanos());
+    }
+
+    // 0 if a token was taken, else how long until one is available
+    private long take(Limit limit, String key, long now) {
+        AtomicLong fullAt = limit.buckets().get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            long next = start + limit.intervalNanos();
+            if (next - now > limit.burstNanos()) {
+                return next - now - limit.burstNanos();
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Gives back a token taken by take; a bucket that has meanwhile been evicted is full anyway
+    private void refund(Limit limit, String key) {
+        AtomicLong fullAt = limit.buckets().getIfPresent(key);
+        if (fullAt != null) {
+            fullAt.addAndGet(-limit.intervalNanos());
+        }
+    }
+}
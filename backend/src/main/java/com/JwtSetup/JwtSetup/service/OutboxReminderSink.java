@@ -0,0 +1,58 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.ReminderDTO;
+import com.JwtSetup.JwtSetup.entity.TaskReminder;
+import com.JwtSetup.JwtSetup.repo.TaskReminderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Default sink: rows in the task_reminders outbox, for a separate consumer to deliver
+@Component
+@ConditionalOnProperty(name = "reminders.sink", havingValue = "outbox", matchIfMissing = true)
+public class OutboxReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxReminderSink.class);
+
+    @Autowired
+    private TaskReminderRepository taskReminderRepository;
+
+    // A task moved D1 -> D2 -> D1 is claimed for D1 again; its D1 row is already queued and is skipped,
+    // since a duplicate would violate uk_task_reminders_task_due_date and roll back the whole batch
+    @Override
+    public void deliver(List<ReminderDTO> reminders) {
+        Instant now = Instant.now();
+        List<TaskReminder> rows = new ArrayList<>();
+        reminders.stream().collect(Collectors.groupingBy(ReminderDTO::getDueDate)).forEach((dueDate, sameDay) -> {
+            Set<Long> queued = new HashSet<>(taskReminderRepository.findQueuedTaskIds(dueDate,
+                    sameDay.stream().map(ReminderDTO::getTaskId).collect(Collectors.toList())));
+            for (ReminderDTO reminder : sameDay) {
+                if (queued.add(reminder.getTaskId())) {
+                    rows.add(toRow(reminder, now));
+                }
+            }
+        });
+        taskReminderRepository.saveAll(rows);
+        log.debug("Queued {} reminders ({} already queued)", rows.size(), reminders.size() - rows.size());
+    }
+
+    private static TaskReminder toRow(ReminderDTO reminder, Instant now) {
+        TaskReminder row = new TaskReminder();
+        row.setTaskId(reminder.getTaskId());
+        row.setProjectId(reminder.getProjectId());
+        row.setOwnerId(reminder.getOwnerId());
+        row.setTitle(reminder.getTitle());
+        row.setDueDate(reminder.getDueDate());
+        row.setCreatedAt(now);
+        return row;
+    }
+}
@@ -0,0 +1,85 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.repo.ProjectRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Maintains the task counters stored on each {@code projects} row.
+ * Writers apply deltas to the project entity, which they lock for the rest of their transaction;
+ * this also bumps the project's version. Going through the entity keeps the second-level cache entry current,
+ * where a bulk UPDATE would evict every cached project;
+ * the repair job recomputes counters from the tasks table in chunks of projects.
+ * Projects that existed before the counters were counted once by the V4 migration.
+ */
+@Service
+public class ProjectCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectCounterService.class);
+
+    private final ProjectRepository projectRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${projects.counterRepair.chunkSize:500}")
+    private int chunkSize;
+
+    public ProjectCounterService(ProjectRepository projectRepository) {
+        this.projectRepository = projectRepository;
+    }
+
+    /**
+     * Adds a delta to the counters of a project the caller has locked ({@code findForUpdate...}), and
+     * bumps its version even when the delta is empty: any task write must change the ETags.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Project project, TaskCounterDelta delta) {
+        if (delta.isEmpty()) {
+            entityManager.lock(project, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+            return;
+        }
+        project.setTotalTasks(project.getTotalTasks() + delta.getTotal());
+        project.setCompletedTasks(project.getCompletedTasks() + delta.getCompleted());
+        project.setNotStartedTasks(project.getNotStartedTasks() + delta.getNotStarted());
+        project.setInProgressTasks(project.getInProgressTasks() + delta.getInProgress());
+        project.setStatusCompletedTasks(project.getStatusCompletedTasks() + delta.getStatusCompleted());
+    }
+
+    // For writes that change what task responses show without changing the counters (attachments)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bumpVersion(Long projectId) {
+        projectRepository.findForUpdateById(projectId).ifPresent(project -> apply(project, new TaskCounterDelta()));
+    }
+
+    // Each chunk is recomputed by one UPDATE ... SET col = (SELECT COUNT ...) in its own transaction
+    @Scheduled(cron = "${projects.counterRepair.cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.NEVER)
+    public int repairAll() {
+        int repaired = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = projectRepository.findIdsAfter(afterId, Limit.of(chunkSize));
+            if (!ids.isEmpty()) {
+                Long lastId = ids.get(ids.size() - 1);
+                repaired += projectRepository.recomputeCounters(ids.get(0), lastId);
+                afterId = lastId;
+            }
+        } while (ids.size() == chunkSize);
+        log.info("Recomputed task counters for {} projects", repaired);
+        return repaired;
+    }
+}
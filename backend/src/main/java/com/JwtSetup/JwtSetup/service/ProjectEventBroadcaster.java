@@ -0,0 +1,369 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.ProjectEventDTO;
+import com.JwtSetup.JwtSetup.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fan-out of project change events to SSE subscribers.
+ * <p>
+ * Publishing only appends to a per-project ring and enqueues into each subscriber's bounded
+ * buffer; writes to the sockets happen on a small dispatcher pool, one drain at a time per
+ * subscriber. A subscriber whose buffer overflows, or whose send has not returned within
+ * {@code events.sendTimeoutMs}, is dropped and can resume with {@code Last-Event-ID} as long as
+ * the missed events are still in the ring. Idle connections are held by async servlet requests,
+ * not threads.
+ */
+@Service
+public class ProjectEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectEventBroadcaster.class);
+
+    // Event ids start from the clock so they keep increasing across restarts
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final ThreadPoolExecutor dispatcher;
+
+    private final int dispatcherThreads;
+
+    // Dispatcher threads left blocked in the send of an evicted subscriber
+    private int stalledThreads;
+
+    @Value("${events.ringSize:256}")
+    private int ringSize;
+
+    @Value("${events.subscriberBufferSize:64}")
+    private int subscriberBufferSize;
+
+    @Value("${events.maxSubscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${events.timeoutMs:1800000}")
+    private long timeoutMs;
+
+    @Value("${events.ringRetentionMs:300000}")
+    private long ringRetentionMs;
+
+    @Value("${events.sendTimeoutMs:10000}")
+    private long sendTimeoutMs;
+
+    public ProjectEventBroadcaster(@Value("${events.dispatcherThreads:4}") int dispatcherThreads) {
+        // Platform threads even in virtual-thread mode: SseEmitter.send writes to the socket inside a
+        // synchronized block, which would pin the carrier of a virtual thread
+        AtomicInteger threadIds = new AtomicInteger();
+        this.dispatcherThreads = dispatcherThreads;
+        this.dispatcher = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "sse-dispatch-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a stream for a project. Events after {@code lastEventId} are replayed from the ring;
+     * if they are no longer there, a {@code reset} event tells the client to refetch.
+     */
+    public SseEmitter subscribe(Long projectId, Long lastEventId) {
+        if (!reserveSlot()) {
+            throw new ServiceUnavailableException("Too many event subscribers");
+        }
+        SseEmitter emitter;
+        try {
+            emitter = newEmitter(timeoutMs);
+        } catch (RuntimeException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+        // Owns the reserved slot from here on; close() gives it back
+        Subscriber subscriber = new Subscriber(projectId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        Channel channel = lockChannel(projectId);
+        try {
+            if (lastEventId != null) {
+                if (channel.covers(lastEventId)) {
+                    for (ProjectEventDTO event : channel.ring) {
+                        if (event.getId() > lastEventId) {
+                            subscriber.offer(toSse(event));
+                        }
+                    }
+                } else {
+                    subscriber.offer(SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON));
+                }
+            }
+            channel.subscribers.add(subscriber);
+            if (subscriber.closed.get()) {
+                channel.subscribers.remove(subscriber);
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+        return emitter;
+    }
+
+    // Delivered after the writing transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectEvent(ProjectEventDTO event) {
+        Channel channel = lockChannel(event.getProjectId());
+        try {
+            event.setId(sequence.incrementAndGet());
+            channel.ring.addLast(event);
+            while (channel.ring.size() > ringSize) {
+                channel.floor = channel.ring.removeFirst().getId();
+            }
+            channel.lastEventAt = System.currentTimeMillis();
+            SseEmitter.SseEventBuilder sse = toSse(event);
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(sse);
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+        if (event.getType() == ProjectEventDTO.Type.PROJECT_DELETED) {
+            new ArrayList<>(channel.subscribers).forEach(Subscriber::finish);
+        }
+    }
+
+    // Keeps proxies from closing idle streams, surfaces dead connections, forgets idle rings
+    @Scheduled(fixedDelayString = "${events.heartbeatMs:25000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        channels.forEach((projectId, channel) -> {
+            channel.subscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("keepalive")));
+            channels.computeIfPresent(projectId, (id, c) -> {
+                if (!c.lock.tryLock()) {
+                    return c;
+                }
+                try {
+                    return c.subscribers.isEmpty() && now - c.lastEventAt > ringRetentionMs ? null : c;
+                } finally {
+                    c.lock.unlock();
+                }
+            });
+        });
+    }
+
+    /**
+     * Drops subscribers whose send has been blocked for more than {@code events.sendTimeoutMs} (a
+     * client that stopped reading with a full socket buffer). The blocked dispatcher thread is
+     * interrupted and, until its send returns, replaced by an extra one, so stalled clients never
+     * hold up delivery to the others. Runs every sendTimeoutMs, so a stall is caught within twice that.
+     */
+    @Scheduled(fixedDelayString = "${events.sendTimeoutMs:10000}")
+    public void evictStalledSubscribers() {
+        long now = System.nanoTime();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.evictIfStalled(now, timeout)));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        channels.values().forEach(channel -> new ArrayList<>(channel.subscribers).forEach(Subscriber::finish));
+        dispatcher.shutdownNow();
+    }
+
+    // Check and increment in one step, so concurrent subscribes never overshoot the limit
+    private boolean reserveSlot() {
+        int count;
+        do {
+            count = subscriberCount.get();
+            if (count >= maxSubscribers) {
+                return false;
+            }
+        } while (!subscriberCount.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    // Grows the pool by one thread per stalled send and shrinks it back once the send returns
+    private synchronized void adjustForStalledThreads(int delta) {
+        stalledThreads += delta;
+        int size = dispatcherThreads + stalledThreads;
+        if (delta > 0) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+
+    SseEmitter newEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    // Returns the project's current channel, locked; retries if the heartbeat just retired it
+    private Channel lockChannel(Long projectId) {
+        while (true) {
+            Channel channel = channels.computeIfAbsent(projectId, id -> new Channel(sequence.get()));
+            channel.lock.lock();
+            if (channels.get(projectId) == channel) {
+                return channel;
+            }
+            channel.lock.unlock();
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(ProjectEventDTO event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.getId()))
+                .name(event.getType().name())
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private static final class Channel {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<ProjectEventDTO> ring = new ArrayDeque<>();
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private volatile long lastEventAt = System.currentTimeMillis();
+        // Highest event id that is no longer (or never was) in the ring
+        private long floor;
+
+        Channel(long floor) {
+            this.floor = floor;
+        }
+
+        // True if every event after lastEventId is still in the ring
+        boolean covers(long lastEventId) {
+            return lastEventId >= floor;
+        }
+    }
+
+    private final class Subscriber {
+        private final Long projectId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // System.nanoTime() when the send in progress started, 0 when none is
+        private volatile long sendingSince;
+        // The draining thread and whether it was given up on; guarded by this
+        private Thread sender;
+        private boolean stalled;
+
+        Subscriber(Long projectId, SseEmitter emitter) {
+            this.projectId = projectId;
+            this.emitter = emitter;
+        }
+
+        // Never blocks the publisher; a full buffer means a slow consumer, which is dropped
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (buffered.incrementAndGet() > subscriberBufferSize) {
+                log.debug("Dropping slow SSE subscriber of project {}", projectId);
+                finish();
+                return;
+            }
+            buffer.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            synchronized (this) {
+                sender = Thread.currentThread();
+            }
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    buffered.decrementAndGet();
+                    sendingSince = System.nanoTime();
+                    emitter.send(event);
+                    sendingSince = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                sendingSince = 0;
+                synchronized (this) {
+                    sender = null;
+                    if (stalled) {
+                        // Evicted while blocked: the extra thread that stood in for this one can go
+                        Thread.interrupted();
+                        adjustForStalledThreads(-1);
+                    }
+                }
+                draining.set(false);
+                if (!closed.get() && !buffer.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        void evictIfStalled(long now, long timeout) {
+            synchronized (this) {
+                long since = sendingSince;
+                if (sender == null || since == 0 || now - since <= timeout || stalled) {
+                    return;
+                }
+                stalled = true;
+                adjustForStalledThreads(1);
+                sender.interrupt();
+            }
+            log.debug("Dropping stalled SSE subscriber of project {}", projectId);
+            finish();
+        }
+
+        void finish() {
+            close();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) { /* already completed */ }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                Channel channel = channels.get(projectId);
+                if (channel != null) {
+                    channel.subscribers.remove(this);
+                }
+                subscriberCount.decrementAndGet();
+                buffer.clear();
+            }
+        }
+    }
+}
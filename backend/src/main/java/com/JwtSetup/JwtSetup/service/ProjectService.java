@@ -1,16 +1,23 @@
 package com.JwtSetup.JwtSetup.service;
 
+import com.JwtSetup.JwtSetup.config.ReplicaRead;
 import com.JwtSetup.JwtSetup.dto.ProjectDTO;
+import com.JwtSetup.JwtSetup.dto.ProjectEventDTO;
 import com.JwtSetup.JwtSetup.dto.TaskDTO;
 import com.JwtSetup.JwtSetup.entity.Project;
 import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.TaskStatus;
 import com.JwtSetup.JwtSetup.entity.User;
 import com.JwtSetup.JwtSetup.repo.ProjectRepository;
 import com.JwtSetup.JwtSetup.repo.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,20 +32,58 @@ public class ProjectService {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @ReplicaRead
     public List<ProjectDTO> getUserProjects(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Project> projects = projectRepository.findByUserId(user.getId());
-        return projects.stream()
+        List<Project> projects = projectRepository.findWithTasksByUserUsername(username);
+        List<ProjectDTO> dtos = projects.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        attachmentService.fillAttachmentCounts(dtos.stream()
+                .flatMap(dto -> dto.getTasks().stream())
+                .collect(Collectors.toList()));
+        return dtos;
     }
 
+    // Counts and progress only, without loading or serializing any task
+    @ReplicaRead
+    public List<ProjectDTO> getUserProjectSummaries(String username) {
+        return projectRepository.findSummariesByUserUsername(username);
+    }
+
+    // ETag of the project list, from (id, version) pairs only
+    @ReplicaRead
+    public String getUserProjectsETag(String username, boolean includeTasks) {
+        String versions = projectRepository.findVersionsByUserUsername(username).stream()
+                .map(v -> v.getId() + ":" + v.getVersion())
+                .collect(Collectors.joining(","));
+        return "projects-" + ETags.digest(username, String.valueOf(includeTasks), versions);
+    }
+
+    // ETag of one project; its version also changes on every task write
+    @ReplicaRead
+    public String getProjectETag(Long id, String username) {
+        Long version = projectRepository.findVersionByIdAndUserUsername(id, username)
+                .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
+        return "project-" + id + "-" + version;
+    }
+
+    public boolean isOwner(Long id, String username) {
+        return projectRepository.existsByIdAndUserUsername(id, username);
+    }
+
+    @ReplicaRead
     public ProjectDTO getProjectById(Long id, String username) {
         Project project = projectRepository.findByIdAndUserUsername(id, username)
                 .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
-        return convertToDTO(project);
+        ProjectDTO dto = convertToDTO(project);
+        attachmentService.fillAttachmentCounts(dto.getTasks());
+        return dto;
     }
 
     public ProjectDTO createProject(ProjectDTO projectDTO, String username) {
@@ -72,22 +117,37 @@ public class ProjectService {
         }
         
         Project updatedProject = projectRepository.save(project);
+        eventPublisher.publishEvent(new ProjectEventDTO(ProjectEventDTO.Type.PROJECT_UPDATED, id, null, null));
         return convertToDTO(updatedProject);
     }
 
+    @Transactional
     public void deleteProject(Long id, String username) {
         Project project = projectRepository.findByIdAndUserUsername(id, username)
                 .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
+        attachmentService.releaseProject(id);
         projectRepository.delete(project);
+        eventPublisher.publishEvent(new ProjectEventDTO(ProjectEventDTO.Type.PROJECT_DELETED, id, null, null));
     }
 
+    // Reads the maintained counters from the project row; tasks are never loaded
+    @ReplicaRead
     public ProjectDTO getProjectProgress(Long id, String username) {
         Project project = projectRepository.findByIdAndUserUsername(id, username)
                 .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
-        return convertToDTO(project);
+
+        ProjectDTO dto = new ProjectDTO(project.getId(), project.getTitle(), project.getDescription(), project.getColor(),
+                project.getCreatedAt(), project.getTotalTasks(), project.getCompletedTasks());
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statusCounts.put(TaskStatus.NOT_STARTED.name(), project.getNotStartedTasks());
+        statusCounts.put(TaskStatus.IN_PROGRESS.name(), project.getInProgressTasks());
+        statusCounts.put(TaskStatus.COMPLETED.name(), project.getStatusCompletedTasks());
+        dto.setStatusCounts(statusCounts);
+        return dto;
     }
 
-    private ProjectDTO convertToDTO(Project project) {
+    // Package-private for the JMH benchmarks (benchmarks module)
+    ProjectDTO convertToDTO(Project project) {
         ProjectDTO dto = new ProjectDTO();
         dto.setId(project.getId());
         dto.setName(project.getTitle());
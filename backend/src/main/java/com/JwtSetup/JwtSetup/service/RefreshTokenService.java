@@ -0,0 +1,135 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.entity.RefreshToken;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.exception.InvalidRefreshTokenException;
+import com.JwtSetup.JwtSetup.repo.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Stores refresh tokens as keyed HMAC-SHA256 digests (microseconds, unlike BCrypt),
+ * grouped into per-device families with single-use rotation.
+ * Presenting a token that was already rotated revokes its whole family.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final SecretKeySpec hmacKey;
+
+    @Value("${jwt.refreshTokenExpirationMs}")
+    private long refreshExpirationMs;
+
+    @Value("${refreshToken.purgeBatchSize:1000}")
+    private int purgeBatchSize;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${refreshToken.hmacSecret:${jwt.secret}}") String hmacSecret) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.hmacKey = new SecretKeySpec(hmacSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public String newFamilyId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Transactional
+    public void store(User user, String familyId, String rawToken) {
+        RefreshToken token = new RefreshToken();
+        token.setUser(user);
+        token.setFamilyId(familyId);
+        token.setTokenHash(digest(rawToken));
+        token.setExpiresAt(Instant.now().plusMillis(refreshExpirationMs));
+        refreshTokenRepository.save(token);
+    }
+
+    /** The token that was presented, and the raw token issued in its place. */
+    public record Rotation(RefreshToken consumed, String nextToken) {
+    }
+
+    /**
+     * Consumes a refresh token and stores the next one in its family, in one transaction. The token row
+     * stays locked until the commit, so of two refreshes with the same token only the first succeeds;
+     * the second, like any reuse of an already rotated token, revokes the family.
+     * {@code issueNext} creates the next raw token for the token's user; anything it throws rolls back.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken, Function<User, String> issueNext) {
+        RefreshToken token = refreshTokenRepository.findForUpdateByTokenHash(digest(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        if (token.isRevoked() || token.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        if (token.getUsedAt() != null) {
+            // Already rotated: someone else holds a copy of this token
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            log.warn("Refresh token reuse detected for user {}, family {} revoked",
+                    token.getUser().getUsername(), token.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token reuse detected");
+        }
+        token.setUsedAt(Instant.now());
+        String nextToken = issueNext.apply(token.getUser());
+        store(token.getUser(), token.getFamilyId(), nextToken);
+        return new Rotation(token, nextToken);
+    }
+
+    @Transactional
+    public void revokeFamily(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId);
+    }
+
+    // Deletes expired rows in small batches so the purge never holds long locks
+    @Scheduled(fixedDelayString = "${refreshToken.purgeIntervalMs:3600000}", initialDelayString = "${refreshToken.purgeIntervalMs:3600000}")
+    @Transactional(propagation = Propagation.NEVER)
+    public int purgeExpired() {
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = refreshTokenRepository.findExpiredIds(Instant.now(), Limit.of(purgeBatchSize));
+            if (!ids.isEmpty()) {
+                refreshTokenRepository.deleteAllByIdInBatch(ids);
+                purged += ids.size();
+            }
+        } while (ids.size() == purgeBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+        return purged;
+    }
+
+    String digest(String rawToken) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            return HexFormat.of().formatHex(mac.doFinal(rawToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.ReminderDTO;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.repo.TaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reminds owners of open tasks {@code reminders.lead} before {@code reminders.timeOfDay} on the due date.
+ * A periodic scan reads the due dates whose reminders fall within the next {@code reminders.windowMs}
+ * from the (completed, due_date, id) index, in keyset batches, and parks each batch in a
+ * {@link TimingWheel} until its time; due dates whose time has already passed (downtime, tasks
+ * created or moved late) are sent right away. Sending claims the batch in one transaction: the rows
+ * are locked, re-checked and marked {@code reminded_for}, so other instances, overlapping scans and
+ * tasks edited meanwhile never produce a second reminder for the same due date.
+ */
+@Service
+public class ReminderService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderService.class);
+
+    private static final int WHEEL_SIZE = 64;
+
+    private record Batch(LocalDate dueDate, List<Long> taskIds) {
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ReminderSink reminderSink;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration lead;
+
+    private final LocalTime timeOfDay;
+
+    private final ZoneId zone;
+
+    private final long windowMs;
+
+    private final long tickMs;
+
+    private final int batchSize;
+
+    private final boolean enabled;
+
+    private final TimingWheel<Batch> wheel;
+
+    // Due dates whose batches wait in the wheel; not rescanned until their time
+    private final Set<LocalDate> scheduled = new HashSet<>();
+
+    private ScheduledExecutorService ticker;
+
+    public ReminderService(PlatformTransactionManager transactionManager,
+                           @Value("${reminders.lead:P1D}") Duration lead,
+                           @Value("${reminders.timeOfDay:09:00}") LocalTime timeOfDay,
+                           @Value("${reminders.zone:}") String zone,
+                           @Value("${reminders.windowMs:3600000}") long windowMs,
+                           @Value("${reminders.tickMs:1000}") long tickMs,
+                           @Value("${reminders.batchSize:500}") int batchSize,
+                           @Value("${reminders.enabled:true}") boolean enabled) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lead = lead;
+        this.timeOfDay = timeOfDay;
+        this.zone = StringUtils.hasText(zone) ? ZoneId.of(zone) : ZoneId.systemDefault();
+        this.windowMs = windowMs;
+        this.tickMs = tickMs;
+        this.batchSize = batchSize;
+        this.enabled = enabled;
+        this.wheel = new TimingWheel<>(tickMs, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                tick(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                log.warn("Sending reminders failed; the next scan retries them", e);
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        // First scan right away: reminders missed while no instance ran go out now
+        ticker.execute(() -> scan(Instant.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${reminders.scanMs:300000}")
+    public void scheduledScan() {
+        if (ticker != null) {
+            scan(Instant.now());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    Instant remindAt(LocalDate dueDate) {
+        return dueDate.atTime(timeOfDay).atZone(zone).minus(lead).toInstant();
+    }
+
+    // Schedules the reminders of the next window and sends those already late; tasks due before today are skipped
+    void scan(Instant now) {
+        Instant horizon = now.plusMillis(windowMs);
+        synchronized (wheel) {
+            scheduled.removeIf(dueDate -> !remindAt(dueDate).isAfter(now));
+        }
+        for (LocalDate dueDate = LocalDate.ofInstant(now, zone); !remindAt(dueDate).isAfter(horizon);
+             dueDate = dueDate.plusDays(1)) {
+            if (!remindAt(dueDate).isAfter(now)) {
+                sendAll(dueDate);
+            } else {
+                schedule(dueDate);
+            }
+        }
+    }
+
+    // Sends the batches whose time has come
+    void tick(long nowMs) {
+        List<Batch> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(nowMs, due::add);
+        }
+        for (Batch batch : due) {
+            send(batch.dueDate(), batch.taskIds());
+        }
+    }
+
+    int pendingBatches() {
+        synchronized (wheel) {
+            return wheel.pending();
+        }
+    }
+
+    // Every open task due on dueDate that has not been reminded for it; returns how many were sent
+    int sendAll(LocalDate dueDate) {
+        int sent = 0;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = taskRepository.findReminderCandidates(dueDate, afterId, Limit.of(batchSize))).isEmpty()) {
+            sent += send(dueDate, ids);
+            afterId = ids.get(ids.size() - 1);
+        }
+        return sent;
+    }
+
+    private void schedule(LocalDate dueDate) {
+        synchronized (wheel) {
+            if (!scheduled.add(dueDate)) {
+                return;
+            }
+        }
+        long deadline = remindAt(dueDate).toEpochMilli();
+        long afterId = 0;
+        int batches = 0;
+        List<Long> ids;
+        while (!(ids = taskRepository.findReminderCandidates(dueDate, afterId, Limit.of(batchSize))).isEmpty()) {
+            Batch batch = new Batch(dueDate, List.copyOf(ids));
+            boolean parked;
+            synchronized (wheel) {
+                parked = wheel.add(deadline, batch);
+            }
+            if (!parked) {
+                send(dueDate, batch.taskIds());
+            }
+            afterId = ids.get(ids.size() - 1);
+            batches++;
+        }
+        log.debug("Scheduled {} reminder batches for tasks due {}", batches, dueDate);
+    }
+
+    // Claims the still-eligible tasks of one batch and hands them to the sink, all in one transaction
+    private int send(LocalDate dueDate, List<Long> taskIds) {
+        Integer sent = transactionTemplate.execute(status -> {
+            List<Task> tasks = taskRepository.lockReminderCandidates(taskIds, dueDate);
+            if (tasks.isEmpty()) {
+                return 0;
+            }
+            taskRepository.markReminded(tasks.stream().map(Task::getId).collect(Collectors.toList()), dueDate);
+            reminderSink.deliver(tasks.stream()
+                    .map(task -> new ReminderDTO(task.getId(), task.getProject().getId(), task.getOwnerId(),
+                            task.getTitle(), dueDate))
+                    .collect(Collectors.toList()));
+            return tasks.size();
+        });
+        return sent == null ? 0 : sent;
+    }
+}
@@ -0,0 +1,13 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.ReminderDTO;
+
+import java.util.List;
+
+/**
+ * Where reminders go. Called inside the transaction that claims them: if it throws, the claim
+ * rolls back and the tasks are picked up again by the next scan. Select one with {@code reminders.sink}.
+ */
+public interface ReminderSink {
+    void deliver(List<ReminderDTO> reminders);
+}
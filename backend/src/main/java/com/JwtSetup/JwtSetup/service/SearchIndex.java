@@ -0,0 +1,282 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.SearchResultDTO;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded Lucene index over task titles, descriptions and sections and the contents of text
+ * attachments. One document per task ({@code t:{id}}) and per attachment ({@code a:{id}}), each
+ * carrying its project id, which searches are filtered on. Changes become visible to searches at
+ * {@link #commit()}. A blank {@code search.indexDir} keeps the index in memory.
+ */
+@Service
+public class SearchIndex {
+
+    private static final String KEY = "key";
+    private static final String TYPE = "type";
+    private static final String PROJECT_ID = "projectId";
+    private static final String PROJECT_FILTER = "projectFilter";
+    private static final String TASK_ID = "taskId";
+    private static final String TITLE = "title";
+    private static final String DESCRIPTION = "description";
+    private static final String SECTION = "section";
+    private static final String FILENAME = "filename";
+    private static final String CONTENT = "content";
+    // Every text field again, as words and as word prefixes (edge n-grams)
+    private static final String ALL = "all";
+    private static final String ALL_PREFIX = "allPrefix";
+
+    private static final String TASK = "task";
+    private static final String ATTACHMENT = "attachment";
+
+    // Extra weight of a word found in these fields; descriptions and contents only go to ALL
+    private static final Map<String, Float> FIELD_BOOSTS = new LinkedHashMap<>();
+
+    static {
+        FIELD_BOOSTS.put(TITLE, 3f);
+        FIELD_BOOSTS.put(FILENAME, 2f);
+        FIELD_BOOSTS.put(SECTION, 1.5f);
+    }
+
+    // An exact word counts more than a prefix, a prefix more than a typo
+    private static final float EXACT_BOOST = 4f;
+    private static final float PREFIX_BOOST = 2f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_LENGTH = 15;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final int MAX_FUZZY_EXPANSIONS = 50;
+
+    // Lower-cased, accents folded: "Réunion" matches "reunion"
+    static final Analyzer ANALYZER = new Analyzer() {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            return new TokenStreamComponents(tokenizer, new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer)));
+        }
+    };
+
+    // Indexes "budget" as "bu", "bud", ... "budget", so a prefix query is a single term lookup
+    private static final Analyzer PREFIX_ANALYZER = new Analyzer() {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            return new TokenStreamComponents(tokenizer, new EdgeNGramTokenFilter(
+                    new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer)), MIN_PREFIX_LENGTH, MAX_PREFIX_LENGTH, true));
+        }
+    };
+
+    private final Directory directory;
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    private final boolean fresh;
+
+    public SearchIndex(@Value("${search.indexDir:search-index}") String indexDir) throws IOException {
+        this.directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Paths.get(indexDir));
+        this.fresh = !DirectoryReader.indexExists(directory);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(
+                new PerFieldAnalyzerWrapper(ANALYZER, Map.of(ALL_PREFIX, PREFIX_ANALYZER))));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    // True if no index existed on disk at startup, so it has to be built from the database
+    public boolean isFresh() {
+        return fresh;
+    }
+
+    public void upsertTask(long taskId, long projectId, String title, String description, String section) throws IOException {
+        Document doc = newDocument("t:" + taskId, TASK, projectId, taskId);
+        addText(doc, TITLE, title, Field.Store.YES);
+        addText(doc, DESCRIPTION, description, Field.Store.NO);
+        addText(doc, SECTION, section, Field.Store.YES);
+        writer.updateDocument(new Term(KEY, "t:" + taskId), doc);
+    }
+
+    public void upsertAttachment(long attachmentId, long projectId, long taskId, String filename, String content) throws IOException {
+        Document doc = newDocument("a:" + attachmentId, ATTACHMENT, projectId, taskId);
+        addText(doc, FILENAME, filename, Field.Store.YES);
+        addText(doc, CONTENT, content, Field.Store.NO);
+        writer.updateDocument(new Term(KEY, "a:" + attachmentId), doc);
+    }
+
+    // The task and its attachments
+    public void deleteTask(long taskId) throws IOException {
+        writer.deleteDocuments(new Term(TASK_ID, Long.toString(taskId)));
+    }
+
+    public void deleteTaskAttachments(long taskId) throws IOException {
+        writer.deleteDocuments(new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TASK_ID, Long.toString(taskId))), Occur.FILTER)
+                .add(new TermQuery(new Term(TYPE, ATTACHMENT)), Occur.FILTER)
+                .build());
+    }
+
+    public void deleteProject(long projectId) throws IOException {
+        writer.deleteDocuments(new Term(PROJECT_ID, Long.toString(projectId)));
+    }
+
+    public void deleteAll() throws IOException {
+        writer.deleteAll();
+    }
+
+    // Makes pending changes durable and visible to searches
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Best matches within the given projects. Every query term must match some word, exactly,
+     * as a prefix (two to fifteen characters) or with one typo (two from eight characters).
+     */
+    public List<SearchResultDTO> search(String text, Collection<Long> projectIds, int limit) throws IOException {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty() || projectIds.isEmpty()) {
+            return List.of();
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            query.add(anyField(term), Occur.MUST);
+        }
+        // Points when the filter is selective, doc values checks on the text matches otherwise
+        query.add(LongField.newSetQuery(PROJECT_FILTER, projectIds.stream().mapToLong(Long::longValue).toArray()),
+                Occur.FILTER);
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs top = searcher.search(query.build(), limit);
+            StoredFields stored = searcher.storedFields();
+            List<SearchResultDTO> results = new ArrayList<>(top.scoreDocs.length);
+            for (ScoreDoc hit : top.scoreDocs) {
+                Document doc = stored.document(hit.doc);
+                long taskId = Long.parseLong(doc.get(TASK_ID));
+                long projectId = Long.parseLong(doc.get(PROJECT_ID));
+                if (TASK.equals(doc.get(TYPE))) {
+                    results.add(new SearchResultDTO(SearchResultDTO.Type.TASK, projectId, taskId,
+                            doc.get(TITLE), doc.get(SECTION), null, hit.score));
+                } else {
+                    Document task = findTask(searcher, stored, taskId);
+                    results.add(new SearchResultDTO(SearchResultDTO.Type.ATTACHMENT, projectId, taskId,
+                            task != null ? task.get(TITLE) : null, task != null ? task.get(SECTION) : null,
+                            doc.get(FILENAME), hit.score));
+                }
+            }
+            return results;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query anyField(String term) {
+        BooleanQuery.Builder any = new BooleanQuery.Builder();
+        any.add(new BoostQuery(new TermQuery(new Term(ALL, term)), EXACT_BOOST), Occur.SHOULD);
+        for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+            any.add(new BoostQuery(new TermQuery(new Term(field.getKey(), term)), field.getValue() * EXACT_BOOST),
+                    Occur.SHOULD);
+        }
+        if (term.length() >= MIN_PREFIX_LENGTH && term.length() <= MAX_PREFIX_LENGTH) {
+            any.add(new BoostQuery(new TermQuery(new Term(ALL_PREFIX, term)), PREFIX_BOOST), Occur.SHOULD);
+        }
+        int maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            // The first character must match; it keeps the automaton small
+            any.add(new FuzzyQuery(new Term(ALL, term), maxEdits, 1, MAX_FUZZY_EXPANSIONS, true), Occur.SHOULD);
+        }
+        return any.build();
+    }
+
+    private Document findTask(IndexSearcher searcher, StoredFields stored, long taskId) throws IOException {
+        TopDocs task = searcher.search(new TermQuery(new Term(KEY, "t:" + taskId)), 1);
+        return task.scoreDocs.length > 0 ? stored.document(task.scoreDocs[0].doc) : null;
+    }
+
+    private static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = ANALYZER.tokenStream(TITLE, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static Document newDocument(String key, String type, long projectId, long taskId) {
+        Document doc = new Document();
+        doc.add(new StringField(KEY, key, Field.Store.NO));
+        doc.add(new StringField(TYPE, type, Field.Store.YES));
+        doc.add(new StringField(PROJECT_ID, Long.toString(projectId), Field.Store.YES));
+        doc.add(new LongField(PROJECT_FILTER, projectId, Field.Store.NO));
+        doc.add(new StringField(TASK_ID, Long.toString(taskId), Field.Store.YES));
+        return doc;
+    }
+
+    private static void addText(Document doc, String field, String value, Field.Store store) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        if (FIELD_BOOSTS.containsKey(field)) {
+            doc.add(new TextField(field, value, store));
+        }
+        doc.add(new TextField(ALL, value, Field.Store.NO));
+        doc.add(new TextField(ALL_PREFIX, value, Field.Store.NO));
+    }
+}
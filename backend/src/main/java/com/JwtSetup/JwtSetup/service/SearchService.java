@@ -0,0 +1,263 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.ProjectEventDTO;
+import com.JwtSetup.JwtSetup.dto.SearchResultDTO;
+import com.JwtSetup.JwtSetup.repo.AttachmentRepository;
+import com.JwtSetup.JwtSetup.repo.AttachmentSearchRow;
+import com.JwtSetup.JwtSetup.repo.ProjectRepository;
+import com.JwtSetup.JwtSetup.repo.ProjectVersion;
+import com.JwtSetup.JwtSetup.repo.TaskRepository;
+import com.JwtSetup.JwtSetup.repo.TaskSearchRow;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over the caller's tasks and text attachments. The {@link SearchIndex} follows
+ * committed writes: change events queue re-reads of the affected rows on a single indexer thread,
+ * so updates apply in order and never slow the request down. If an update is lost (full queue,
+ * I/O error) the whole index is rebuilt from the database; {@code search.rebuild=true} forces
+ * that at startup.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Value("${search.maxResults:50}")
+    private int maxResults;
+
+    @Value("${search.maxAttachmentBytes:1048576}")
+    private int maxAttachmentBytes;
+
+    @Value("${search.rebuild:false}")
+    private boolean rebuildOnStartup;
+
+    private final ThreadPoolExecutor indexer;
+
+    private volatile boolean stale;
+
+    private interface IndexJob {
+        void run() throws IOException;
+    }
+
+    public SearchService(@Value("${search.queueCapacity:10000}") int queueCapacity) {
+        this.indexer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "search-indexer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public List<SearchResultDTO> search(String query, int limit, String username) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        List<Long> projectIds = projectRepository.findVersionsByUserUsername(username).stream()
+                .map(ProjectVersion::getId)
+                .collect(Collectors.toList());
+        try {
+            return searchIndex.search(query, projectIds, Math.max(1, Math.min(limit, maxResults)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Delivered after the writing transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectEvent(ProjectEventDTO event) {
+        switch (event.getType()) {
+            case TASK_CREATED:
+            case TASK_UPDATED:
+            case TASK_DELETED:
+                submit(() -> reindexTasks(List.of(event.getTaskId())));
+                break;
+            case ATTACHMENTS_CHANGED:
+                submit(() -> reindexAttachments(event.getTaskId()));
+                break;
+            case PROJECT_DELETED:
+                submit(() -> searchIndex.deleteProject(event.getProjectId()));
+                break;
+            default:
+                // status changes and project edits touch no indexed field; bulk changes come as TasksChangedEvent
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksChanged(TasksChangedEvent event) {
+        List<Long> taskIds = new ArrayList<>(event.taskIds());
+        submit(() -> reindexTasks(taskIds));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfMissing() {
+        if (rebuildOnStartup || searchIndex.isFresh()) {
+            requestRebuild();
+        }
+    }
+
+    // Replaces the index with one built from the database; searches see the old one until it is done
+    public void requestRebuild() {
+        stale = false;
+        submit(this::rebuild);
+    }
+
+    @Scheduled(fixedDelayString = "${search.staleCheckMs:60000}")
+    public void rebuildIfStale() {
+        if (stale) {
+            log.warn("Search index missed updates, rebuilding");
+            requestRebuild();
+        }
+    }
+
+    // Completes once every change queued so far is searchable
+    Future<?> flush() {
+        FutureTask<Void> marker = new FutureTask<>(() -> {
+            searchIndex.commit();
+            return null;
+        });
+        indexer.execute(marker);
+        return marker;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        indexer.shutdown();
+        indexer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void submit(IndexJob job) {
+        try {
+            indexer.execute(() -> {
+                try {
+                    job.run();
+                    // Commits coalesce while writes keep arriving
+                    if (indexer.getQueue().isEmpty()) {
+                        searchIndex.commit();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    stale = true;
+                    log.warn("Search index update failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stale = true;
+        }
+    }
+
+    // Re-reads the tasks; ids that are gone are removed with their attachments
+    private void reindexTasks(List<Long> taskIds) throws IOException {
+        for (int from = 0; from < taskIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = taskIds.subList(from, Math.min(from + CHUNK_SIZE, taskIds.size()));
+            Map<Long, TaskSearchRow> rows = taskRepository.findSearchRowsByIdIn(chunk).stream()
+                    .collect(Collectors.toMap(TaskSearchRow::getId, Function.identity()));
+            for (Long taskId : chunk) {
+                TaskSearchRow row = rows.get(taskId);
+                if (row != null) {
+                    index(row);
+                } else {
+                    searchIndex.deleteTask(taskId);
+                }
+            }
+        }
+    }
+
+    private void reindexAttachments(Long taskId) throws IOException {
+        searchIndex.deleteTaskAttachments(taskId);
+        for (AttachmentSearchRow row : attachmentRepository.findTextSearchRowsByTaskId(taskId)) {
+            index(row);
+        }
+    }
+
+    private void rebuild() throws IOException {
+        long start = System.nanoTime();
+        searchIndex.deleteAll();
+        int tasks = 0;
+        List<TaskSearchRow> taskRows;
+        long afterId = 0;
+        while (!(taskRows = taskRepository.findSearchRowsAfter(afterId, Limit.of(CHUNK_SIZE))).isEmpty()) {
+            for (TaskSearchRow row : taskRows) {
+                index(row);
+            }
+            tasks += taskRows.size();
+            afterId = taskRows.get(taskRows.size() - 1).getId();
+        }
+        int attachments = 0;
+        List<AttachmentSearchRow> attachmentRows;
+        afterId = 0;
+        while (!(attachmentRows = attachmentRepository.findTextSearchRowsAfter(afterId, Limit.of(CHUNK_SIZE))).isEmpty()) {
+            for (AttachmentSearchRow row : attachmentRows) {
+                index(row);
+            }
+            attachments += attachmentRows.size();
+            afterId = attachmentRows.get(attachmentRows.size() - 1).getId();
+        }
+        searchIndex.commit();
+        log.info("Search index rebuilt: {} tasks, {} text attachments in {} ms",
+                tasks, attachments, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void index(TaskSearchRow row) throws IOException {
+        searchIndex.upsertTask(row.getId(), row.getProjectId(), row.getTitle(), row.getDescription(), row.getSection());
+    }
+
+    private void index(AttachmentSearchRow row) throws IOException {
+        String content = readText(row.getSha256());
+        if (content != null) {
+            searchIndex.upsertAttachment(row.getId(), row.getProjectId(), row.getTaskId(), row.getFilename(), content);
+        }
+    }
+
+    // The first maxAttachmentBytes of the blob as UTF-8; null if the blob was collected meanwhile
+    private String readText(String sha256) throws IOException {
+        try (InputStream in = Files.newInputStream(attachmentStore.blobPath(sha256))) {
+            return new String(in.readNBytes(maxAttachmentBytes), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.TaskStatus;
+
+/**
+ * Net change to a project's task counters caused by one or more task writes.
+ * Call {@link #remove(Task)} with a task's state before a change and {@link #add(Task)} after it.
+ */
+public class TaskCounterDelta {
+    private long total;
+    private long completed;
+    private long notStarted;
+    private long inProgress;
+    private long statusCompleted;
+
+    public TaskCounterDelta add(Task task) {
+        return apply(task.getCompleted(), task.getStatus(), 1);
+    }
+
+    public TaskCounterDelta remove(Task task) {
+        return apply(task.getCompleted(), task.getStatus(), -1);
+    }
+
+    // Undo a state captured before the task was mutated
+    public TaskCounterDelta remove(Boolean wasCompleted, TaskStatus previousStatus) {
+        return apply(wasCompleted, previousStatus, -1);
+    }
+
+    private TaskCounterDelta apply(Boolean isCompleted, TaskStatus status, int sign) {
+        total += sign;
+        if (Boolean.TRUE.equals(isCompleted)) {
+            completed += sign;
+        }
+        if (status == TaskStatus.NOT_STARTED) {
+            notStarted += sign;
+        } else if (status == TaskStatus.IN_PROGRESS) {
+            inProgress += sign;
+        } else if (status == TaskStatus.COMPLETED) {
+            statusCompleted += sign;
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return total == 0 && completed == 0 && notStarted == 0 && inProgress == 0 && statusCompleted == 0;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getNotStarted() {
+        return notStarted;
+    }
+
+    public long getInProgress() {
+        return inProgress;
+    }
+
+    public long getStatusCompleted() {
+        return statusCompleted;
+    }
+}
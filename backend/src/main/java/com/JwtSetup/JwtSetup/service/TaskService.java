@@ -1,107 +1,267 @@
 package com.JwtSetup.JwtSetup.service;
 
+import com.JwtSetup.JwtSetup.config.ReplicaRead;
+import com.JwtSetup.JwtSetup.dto.BulkTaskRequestDTO;
+import com.JwtSetup.JwtSetup.dto.BulkTaskResultDTO;
+import com.JwtSetup.JwtSetup.dto.MyTasksFilterDTO;
+import com.JwtSetup.JwtSetup.dto.ProjectEventDTO;
 import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.dto.TaskFilterDTO;
+import com.JwtSetup.JwtSetup.dto.TaskPageDTO;
 import com.JwtSetup.JwtSetup.entity.Project;
 import com.JwtSetup.JwtSetup.entity.Task;
 import com.JwtSetup.JwtSetup.entity.TaskStatus;
+import com.JwtSetup.JwtSetup.exception.BadRequestException;
 import com.JwtSetup.JwtSetup.repo.ProjectRepository;
 import com.JwtSetup.JwtSetup.repo.TaskRepository;
+import com.JwtSetup.JwtSetup.repo.TaskSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
 
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
     @Autowired
     private TaskRepository taskRepository;
 
     @Autowired
     private ProjectRepository projectRepository;
 
-    public List<TaskDTO> getProjectTasks(Long projectId, String username) {
-        Project project = projectRepository.findByIdAndUserUsername(projectId, username)
+    @Autowired
+    private ProjectCounterService projectCounterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    // ETag of one page of tasks: project version plus the query that selected the page
+    @ReplicaRead
+    public String getProjectTasksETag(Long projectId, TaskFilterDTO filter, String username) {
+        Long version = projectRepository.findVersionByIdAndUserUsername(projectId, username)
             .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
+        return "tasks-" + projectId + "-" + version + "-" + ETags.digest(filter.cacheKey());
+    }
+
+    @ReplicaRead
+    public TaskPageDTO getProjectTasks(Long projectId, TaskFilterDTO filter, String username) {
+        projectRepository.findByIdAndUserUsername(projectId, username)
+            .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
+
+        Specification<Task> spec = TaskSpecifications.inProject(projectId);
+        if (filter.getStatus() != null) {
+            spec = spec.and(TaskSpecifications.hasStatus(parseStatus(filter.getStatus())));
+        }
+        if (filter.getSection() != null) {
+            spec = spec.and(TaskSpecifications.inSection(filter.getSection()));
+        }
+        if (filter.getCompleted() != null) {
+            spec = spec.and(TaskSpecifications.isCompleted(filter.getCompleted()));
+        }
+        if (filter.getDueFrom() != null) {
+            spec = spec.and(TaskSpecifications.dueOnOrAfter(filter.getDueFrom()));
+        }
+        if (filter.getDueTo() != null) {
+            spec = spec.and(TaskSpecifications.dueOnOrBefore(filter.getDueTo()));
+        }
 
-        List<Task> tasks = taskRepository.findByProjectIdAndProjectUserUsername(projectId, username);
-        return tasks.stream()
-                .map(this::convertToDTO)
+        // Keyset pagination: continue strictly after the last row of the previous page
+        Sort sort;
+        if (filter.isSortedByDueDate()) {
+            // Tasks without a due date have no position in this ordering and are left out
+            spec = spec.and(TaskSpecifications.hasDueDate());
+            sort = Sort.by("dueDate", "id");
+            if (filter.getCursor() != null) {
+                String[] parts = filter.getCursor().split("_", 2);
+                if (parts.length != 2) {
+                    throw new BadRequestException("Invalid cursor: " + filter.getCursor());
+                }
+                spec = spec.and(TaskSpecifications.dueDateAndIdAfter(
+                        cursorDate(parts[0], filter.getCursor()), cursorId(parts[1], filter.getCursor())));
+            }
+        } else {
+            sort = Sort.by("id");
+            if (filter.getCursor() != null) {
+                spec = spec.and(TaskSpecifications.idAfter(cursorId(filter.getCursor(), filter.getCursor())));
+            }
+        }
+
+        // Fetch one extra row to know whether another page follows, without a count query
+        int limit = filter.effectiveLimit();
+        List<Task> tasks = taskRepository.findBy(spec, q -> q.sortBy(sort).limit(limit + 1).all());
+
+        String nextCursor = null;
+        if (tasks.size() > limit) {
+            tasks = tasks.subList(0, limit);
+            Task last = tasks.get(limit - 1);
+            nextCursor = filter.isSortedByDueDate()
+                ? last.getDueDate() + "_" + last.getId()
+                : String.valueOf(last.getId());
+        }
+
+        List<TaskDTO> items = tasks.stream()
+                .map(task -> convertToDTO(task, projectId))
                 .collect(Collectors.toList());
+        attachmentService.fillAttachmentCounts(items);
+        return new TaskPageDTO(items, nextCursor);
+    }
+
+    // ETag of one page of the caller's tasks: versions of all their projects plus the query
+    public String getMyTasksETag(MyTasksFilterDTO filter, String username) {
+        String versions = projectRepository.findVersionsByUserUsername(username).stream()
+                .map(v -> v.getId() + ":" + v.getVersion())
+                .collect(Collectors.joining(","));
+        return "my-tasks-" + ETags.digest(username, versions, filter.cacheKey());
+    }
+
+    /**
+     * The caller's tasks across all projects, by due date then id, keyset-paginated. Reads one
+     * (owner_id[, completed], due_date, id) index range; tasks without a due date come last
+     * (cursor {@code none_{id}}) and are left out when a due window is given.
+     */
+    @Transactional(readOnly = true)
+    public TaskPageDTO getMyTasks(MyTasksFilterDTO filter, String username) {
+        Specification<Task> spec = TaskSpecifications.ownedBy(username);
+        if (!filter.getStatus().isEmpty()) {
+            spec = spec.and(TaskSpecifications.hasStatusIn(filter.getStatus().stream()
+                    .map(TaskService::parseStatus).collect(Collectors.toList())));
+        }
+        if (filter.getCompleted() != null) {
+            spec = spec.and(TaskSpecifications.isCompleted(filter.getCompleted()));
+        }
+        LocalDate dueFrom = filter.effectiveDueFrom();
+        LocalDate dueTo = filter.effectiveDueTo();
+        if (dueFrom != null) {
+            spec = spec.and(TaskSpecifications.dueOnOrAfter(dueFrom));
+        }
+        if (dueTo != null) {
+            spec = spec.and(TaskSpecifications.dueOnOrBefore(dueTo));
+        }
+        if (filter.effectiveQ() != null) {
+            spec = spec.and(TaskSpecifications.matches(filter.effectiveQ()));
+        }
+        boolean windowed = dueFrom != null || dueTo != null;
+
+        String cursor = filter.getCursor();
+        String[] position = null;
+        if (cursor != null) {
+            position = cursor.split("_", 2);
+            if (position.length != 2) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+        }
+        boolean pastDated = position != null && "none".equals(position[0]);
+
+        // One extra row tells whether another page follows
+        int limit = filter.effectiveLimit();
+        List<Task> tasks = new ArrayList<>();
+        if (!pastDated) {
+            Specification<Task> dated = spec.and(TaskSpecifications.hasDueDate());
+            if (position != null) {
+                dated = dated.and(TaskSpecifications.dueDateAndIdAfter(
+                        cursorDate(position[0], cursor), cursorId(position[1], cursor)));
+            }
+            tasks.addAll(taskRepository.findBy(dated, q -> q.sortBy(Sort.by("dueDate", "id")).limit(limit + 1).all()));
+        }
+        if (!windowed && tasks.size() <= limit) {
+            Specification<Task> undated = spec.and(TaskSpecifications.hasNoDueDate());
+            if (pastDated) {
+                undated = undated.and(TaskSpecifications.idAfter(cursorId(position[1], cursor)));
+            }
+            int remaining = limit + 1 - tasks.size();
+            tasks.addAll(taskRepository.findBy(undated, q -> q.sortBy(Sort.by("id")).limit(remaining).all()));
+        }
+
+        String nextCursor = null;
+        if (tasks.size() > limit) {
+            tasks = tasks.subList(0, limit);
+            Task last = tasks.get(limit - 1);
+            nextCursor = (last.getDueDate() != null ? last.getDueDate().toString() : "none") + "_" + last.getId();
+        }
+
+        List<TaskDTO> items = tasks.stream().map(this::convertToDTO).collect(Collectors.toList());
+        attachmentService.fillAttachmentCounts(items);
+        return new TaskPageDTO(items, nextCursor);
     }
 
+    @Transactional
     public TaskDTO createTask(Long projectId, TaskDTO taskDTO, String username) {
-        Project project = projectRepository.findByIdAndUserUsername(projectId, username)
+        Project project = projectRepository.findForUpdateByIdAndUserUsername(projectId, username)
             .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
 
-        Task task = new Task();
-        task.setTitle(taskDTO.getTitle());
-        task.setDescription(taskDTO.getDescription());
-        task.setDueDate(taskDTO.getDueDate());
-        task.setCompleted(false);
-        task.setStatus(TaskStatus.NOT_STARTED);
-        task.setSection(taskDTO.getSection());
-        task.setProject(project);
+        Task task = newTask(taskDTO, project);
         
         Task savedTask = taskRepository.save(task);
-        return convertToDTO(savedTask);
+        projectCounterService.apply(project, new TaskCounterDelta().add(savedTask));
+        return publish(ProjectEventDTO.Type.TASK_CREATED, projectId, convertToDTO(savedTask));
     }
 
+    @Transactional
     public TaskDTO updateTask(Long projectId, Long taskId, TaskDTO taskDTO, String username) {
-        projectRepository.findByIdAndUserUsername(projectId, username)
+        Project project = projectRepository.findForUpdateByIdAndUserUsername(projectId, username)
             .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
 
         Task task = taskRepository.findByIdAndProjectIdAndProjectUserUsername(taskId, projectId, username)
             .orElseThrow(() -> new RuntimeException("Task not found or unauthorized"));
-        
-        if (taskDTO.getTitle() != null) {
-            task.setTitle(taskDTO.getTitle());
-        }
-        if (taskDTO.getDescription() != null) {
-            task.setDescription(taskDTO.getDescription());
-        }
-        if (taskDTO.getDueDate() != null) {
-            task.setDueDate(taskDTO.getDueDate());
-        }
-        if (taskDTO.getSection() != null) {
-            task.setSection(taskDTO.getSection());
-        }
-        if (taskDTO.getCompleted() != null) {
-            task.setCompleted(taskDTO.getCompleted());
-        }
-        if (taskDTO.getStatus() != null) {
-            task.setStatus(TaskStatus.valueOf(taskDTO.getStatus()));
-        }
+
+        TaskCounterDelta delta = new TaskCounterDelta().remove(task.getCompleted(), task.getStatus());
+        applyPatch(task, taskDTO);
         
         Task updatedTask = taskRepository.save(task);
-        return convertToDTO(updatedTask);
+        projectCounterService.apply(project, delta.add(updatedTask));
+        return publish(ProjectEventDTO.Type.TASK_UPDATED, projectId, withAttachmentCount(convertToDTO(updatedTask)));
     }
 
+    @Transactional
     public void deleteTask(Long projectId, Long taskId, String username) {
-        projectRepository.findByIdAndUserUsername(projectId, username)
+        Project project = projectRepository.findForUpdateByIdAndUserUsername(projectId, username)
             .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
 
         Task task = taskRepository.findByIdAndProjectIdAndProjectUserUsername(taskId, projectId, username)
             .orElseThrow(() -> new RuntimeException("Task not found or unauthorized"));
 
+        attachmentService.releaseTasks(List.of(taskId));
         taskRepository.delete(task);
+        projectCounterService.apply(project, new TaskCounterDelta().remove(task));
+        eventPublisher.publishEvent(new ProjectEventDTO(ProjectEventDTO.Type.TASK_DELETED, projectId, taskId, null));
     }
 
+    @Transactional
     public TaskDTO toggleTaskComplete(Long projectId, Long taskId, String username) {
-        projectRepository.findByIdAndUserUsername(projectId, username)
+        Project project = projectRepository.findForUpdateByIdAndUserUsername(projectId, username)
             .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
 
         Task task = taskRepository.findByIdAndProjectIdAndProjectUserUsername(taskId, projectId, username)
             .orElseThrow(() -> new RuntimeException("Task not found or unauthorized"));
 
+        TaskCounterDelta delta = new TaskCounterDelta().remove(task.getCompleted(), task.getStatus());
         task.setCompleted(!task.getCompleted());
         Task updatedTask = taskRepository.save(task);
-        return convertToDTO(updatedTask);
+        projectCounterService.apply(project, delta.add(updatedTask));
+        return publish(ProjectEventDTO.Type.TASK_STATUS_CHANGED, projectId, withAttachmentCount(convertToDTO(updatedTask)));
     }
 
+    @Transactional
     public TaskDTO updateTaskStatus(Long projectId, Long taskId, String username) {
-        projectRepository.findByIdAndUserUsername(projectId, username)
+        Project project = projectRepository.findForUpdateByIdAndUserUsername(projectId, username)
             .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
 
         Task task = taskRepository.findByIdAndProjectIdAndProjectUserUsername(taskId, projectId, username)
@@ -125,12 +285,172 @@ public class TaskService {
                 newStatus = TaskStatus.NOT_STARTED;
         }
         
+        TaskCounterDelta delta = new TaskCounterDelta().remove(task.getCompleted(), currentStatus);
         task.setStatus(newStatus);
         Task updatedTask = taskRepository.save(task);
-        return convertToDTO(updatedTask);
+        projectCounterService.apply(project, delta.add(updatedTask));
+        return publish(ProjectEventDTO.Type.TASK_STATUS_CHANGED, projectId, withAttachmentCount(convertToDTO(updatedTask)));
+    }
+
+    /**
+     * Applies many creates, updates (including status changes) and deletes in one transaction.
+     * Ownership is checked once for the project, targets are loaded with one IN query per chunk,
+     * and all writes are flushed as JDBC batches.
+     */
+    @Transactional
+    public BulkTaskResultDTO bulkTasks(Long projectId, BulkTaskRequestDTO request, String username) {
+        if (request.size() > BulkTaskRequestDTO.MAX_OPERATIONS) {
+            throw new BadRequestException("Too many operations: " + request.size()
+                    + " (max " + BulkTaskRequestDTO.MAX_OPERATIONS + ")");
+        }
+        // Validate the whole request before the first write
+        Map<Long, TaskDTO> patches = new LinkedHashMap<>();
+        for (TaskDTO taskDTO : request.getUpdate()) {
+            if (taskDTO.getId() == null) {
+                throw new BadRequestException("Update entries require an id");
+            }
+            patches.put(taskDTO.getId(), taskDTO);
+        }
+        Set<Long> deleteIds = new LinkedHashSet<>(request.getDelete());
+        List<Long> overlap = deleteIds.stream().filter(patches::containsKey).collect(Collectors.toList());
+        if (!overlap.isEmpty()) {
+            throw new BadRequestException("Tasks both updated and deleted: " + overlap);
+        }
+        Project project = projectRepository.findForUpdateByIdAndUserUsername(projectId, username)
+            .orElseThrow(() -> new RuntimeException("Project not found or unauthorized"));
+
+        TaskCounterDelta delta = new TaskCounterDelta();
+
+        List<Task> created = request.getCreate().stream()
+                .map(taskDTO -> newTask(taskDTO, project))
+                .collect(Collectors.toList());
+        taskRepository.saveAll(created);
+        created.forEach(delta::add);
+
+        List<Task> updated = findProjectTasks(projectId, patches.keySet());
+        for (Task task : updated) {
+            delta.remove(task.getCompleted(), task.getStatus());
+            applyPatch(task, patches.get(task.getId()));
+            delta.add(task);
+        }
+
+        findProjectTasks(projectId, deleteIds).forEach(delta::remove);
+        for (List<Long> chunk : chunks(new ArrayList<>(deleteIds))) {
+            attachmentService.releaseTasks(chunk);
+            taskRepository.deleteAllByIdInBatch(chunk);
+        }
+
+        projectCounterService.apply(project, delta);
+        eventPublisher.publishEvent(new ProjectEventDTO(ProjectEventDTO.Type.TASKS_BULK_CHANGED, projectId, null, null));
+        Set<Long> changedIds = new LinkedHashSet<>(deleteIds);
+        created.forEach(task -> changedIds.add(task.getId()));
+        updated.forEach(task -> changedIds.add(task.getId()));
+        eventPublisher.publishEvent(new TasksChangedEvent(projectId, changedIds));
+
+        List<TaskDTO> updatedDTOs = updated.stream().map(task -> convertToDTO(task, projectId)).collect(Collectors.toList());
+        attachmentService.fillAttachmentCounts(updatedDTOs);
+        return new BulkTaskResultDTO(
+                created.stream().map(task -> convertToDTO(task, projectId)).collect(Collectors.toList()),
+                updatedDTOs,
+                deleteIds.size());
+    }
+
+    private TaskDTO withAttachmentCount(TaskDTO task) {
+        attachmentService.fillAttachmentCounts(List.of(task));
+        return task;
+    }
+
+    // Queues a change event; listeners only see it once the surrounding transaction commits
+    private TaskDTO publish(ProjectEventDTO.Type type, Long projectId, TaskDTO task) {
+        eventPublisher.publishEvent(new ProjectEventDTO(type, projectId, task.getId(), task));
+        return task;
+    }
+
+    // Loads the given tasks of a project; fails if any id is missing or belongs elsewhere
+    private List<Task> findProjectTasks(Long projectId, Collection<Long> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (List<Long> chunk : chunks(new ArrayList<>(ids))) {
+            tasks.addAll(taskRepository.findByProjectIdAndIdIn(projectId, chunk));
+        }
+        if (tasks.size() != ids.size()) {
+            throw new RuntimeException("Task not found or unauthorized");
+        }
+        return tasks;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK) {
+            chunks.add(ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK, ids.size())));
+        }
+        return chunks;
+    }
+
+    private Task newTask(TaskDTO taskDTO, Project project) {
+        Task task = new Task();
+        task.setTitle(taskDTO.getTitle());
+        task.setDescription(taskDTO.getDescription());
+        task.setDueDate(taskDTO.getDueDate());
+        task.setCompleted(false);
+        task.setStatus(TaskStatus.NOT_STARTED);
+        task.setSection(taskDTO.getSection());
+        task.setProject(project);
+        return task;
+    }
+
+    // Only non-null fields of the patch are applied
+    private void applyPatch(Task task, TaskDTO taskDTO) {
+        if (taskDTO.getTitle() != null) {
+            task.setTitle(taskDTO.getTitle());
+        }
+        if (taskDTO.getDescription() != null) {
+            task.setDescription(taskDTO.getDescription());
+        }
+        if (taskDTO.getDueDate() != null) {
+            task.setDueDate(taskDTO.getDueDate());
+        }
+        if (taskDTO.getSection() != null) {
+            task.setSection(taskDTO.getSection());
+        }
+        if (taskDTO.getCompleted() != null) {
+            task.setCompleted(taskDTO.getCompleted());
+        }
+        if (taskDTO.getStatus() != null) {
+            task.setStatus(parseStatus(taskDTO.getStatus()));
+        }
+    }
+
+    // Values sent by the client: unparseable ones are a 400, not a server or authentication error
+    private static TaskStatus parseStatus(String status) {
+        try {
+            return TaskStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid status: " + status);
+        }
+    }
+
+    private static LocalDate cursorDate(String value, String cursor) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static Long cursorId(String value, String cursor) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Package-private for the JMH benchmarks (benchmarks module)
+    TaskDTO convertToDTO(Task task) {
+        return convertToDTO(task, task.getProject().getId());
     }
 
-    private TaskDTO convertToDTO(Task task) {
+    TaskDTO convertToDTO(Task task, Long projectId) {
         TaskDTO dto = new TaskDTO();
         dto.setId(task.getId());
         dto.setTitle(task.getTitle());
@@ -139,7 +459,7 @@ public class TaskService {
         dto.setCompleted(task.getCompleted());
         dto.setStatus(task.getStatus().name());
         dto.setSection(task.getSection());
-        dto.setProjectId(task.getProject().getId());
+        dto.setProjectId(projectId);
         return dto;
     }
 }
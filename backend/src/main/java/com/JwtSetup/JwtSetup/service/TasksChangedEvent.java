@@ -0,0 +1,10 @@
+package com.JwtSetup.JwtSetup.service;
+
+import java.util.Collection;
+
+/**
+ * Tasks created, updated or deleted by one bulk request, for listeners that need the ids
+ * ({@code TASKS_BULK_CHANGED} only tells SSE clients to refetch). Delivered after commit.
+ */
+public record TasksChangedEvent(Long projectId, Collection<Long> taskIds) {
+}
@@ -0,0 +1,230 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downscaled JPEG previews of image and PDF attachments (first page for PDFs), stored as a
+ * {@code thumb.jpg} variant next to the blob, so identical content shares one thumbnail.
+ * <p>
+ * Generation runs on a small bounded pool, started once an upload commits; a request for a
+ * thumbnail that is still missing joins the pending generation, or starts it, and waits briefly.
+ * Images are decoded with source subsampling, so memory follows the thumbnail size, not the image's.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+
+    public static final String VARIANT = "thumb.jpg";
+
+    private static final Set<String> SUPPORTED_TYPES = Set.of("image/png", "image/jpeg", "application/pdf");
+
+    private final AttachmentStore attachmentStore;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, CompletableFuture<Path>> pending = new ConcurrentHashMap<>();
+
+    @Value("${thumbnails.size:256}")
+    private int size;
+
+    @Value("${thumbnails.maxSourceBytes:52428800}")
+    private long maxSourceBytes;
+
+    @Value("${thumbnails.waitMs:5000}")
+    private long waitMs;
+
+    public ThumbnailService(AttachmentStore attachmentStore,
+                            @Value("${thumbnails.workers:2}") int workers,
+                            @Value("${thumbnails.queueCapacity:100}") int queueCapacity) {
+        this.attachmentStore = attachmentStore;
+        // CPU-bound decoding: a small platform pool, whatever the request threads are
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public static boolean supports(String contentType) {
+        return SUPPORTED_TYPES.contains(contentType);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttachmentStored(AttachmentStoredEvent event) {
+        if (supports(event.contentType()) && event.size() <= maxSourceBytes) {
+            request(event.sha256(), event.contentType());
+        }
+    }
+
+    /**
+     * Path of the thumbnail, generating it if needed. Empty if the content has no preview
+     * (unsupported, too large or unreadable).
+     *
+     * @throws ServiceUnavailableException if it is not ready within the wait time
+     */
+    public Optional<Path> getThumbnail(String sha256, String contentType, long sourceSize) {
+        if (!supports(contentType) || sourceSize > maxSourceBytes) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(request(sha256, contentType).get(waitMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Thumbnail is being generated");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new ServiceUnavailableException("Thumbnail queue is full");
+            }
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted");
+        }
+    }
+
+    // The existing thumbnail, the pending generation, or a newly queued one
+    CompletableFuture<Path> request(String sha256, String contentType) {
+        Path target = attachmentStore.variantPath(sha256, VARIANT);
+        if (Files.exists(target)) {
+            return CompletableFuture.completedFuture(target);
+        }
+        CompletableFuture<Path> future = pending.computeIfAbsent(sha256, key -> {
+            CompletableFuture<Path> generation = new CompletableFuture<>();
+            try {
+                executor.execute(() -> {
+                    try {
+                        generate(sha256, contentType, target);
+                        generation.complete(target);
+                    } catch (Exception | LinkageError e) {
+                        log.warn("Could not create thumbnail for blob {}", sha256, e);
+                        generation.completeExceptionally(e);
+                    } finally {
+                        pending.remove(key, generation);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                generation.completeExceptionally(e);
+            }
+            return generation;
+        });
+        if (future.isCompletedExceptionally()) {
+            pending.remove(sha256, future);
+        }
+        return future;
+    }
+
+    private void generate(String sha256, String contentType, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        Path source = attachmentStore.blobPath(sha256);
+        BufferedImage image = "application/pdf".equals(contentType) ? renderFirstPage(source) : readSubsampled(source);
+        BufferedImage thumbnail = scale(image);
+        Path tmp = Files.createTempFile(target.getParent(), sha256, ".part");
+        try {
+            if (!ImageIO.write(thumbnail, "jpg", tmp.toFile())) {
+                throw new IOException("No JPEG writer available");
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Decodes only every n-th pixel so the result is at most about twice the thumbnail size
+    private BufferedImage readSubsampled(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Renders page one at the scale that fits the thumbnail box; the document is buffered on disk
+    private BufferedImage renderFirstPage(Path source) throws IOException {
+        try (PDDocument document = Loader.loadPDF(source.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            if (document.getNumberOfPages() == 0) {
+                throw new IOException("Empty PDF");
+            }
+            PDRectangle box = document.getPage(0).getCropBox();
+            float scale = size / Math.max(box.getWidth(), box.getHeight());
+            return new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    // Fits the image in a size x size box (never upscales), flattened onto white for JPEG
+    private BufferedImage scale(BufferedImage image) {
+        double ratio = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return thumbnail;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
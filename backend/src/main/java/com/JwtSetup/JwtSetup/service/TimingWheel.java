@@ -0,0 +1,97 @@
+package com.JwtSetup.JwtSetup.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@code size} buckets of {@code tickMs} each, with an overflow wheel of
+ * {@code tickMs * size} ticks (created on demand) for later deadlines. Adding and expiring an item
+ * cost O(1) whatever the number of pending items; items move down one level when their bucket in
+ * the overflow wheel comes up. An item expires in the tick that contains its deadline, so at most
+ * one tick early. Not thread-safe.
+ */
+class TimingWheel<T> {
+
+    private record Entry<T>(long deadlineMs, T item) {
+    }
+
+    private final long tickMs;
+    private final int size;
+    private final long intervalMs;
+    private final List<List<Entry<T>>> buckets;
+    private long currentMs;
+    private TimingWheel<T> overflow;
+    private int pending;
+
+    TimingWheel(long tickMs, int size, long startMs) {
+        this.tickMs = tickMs;
+        this.size = size;
+        this.intervalMs = tickMs * size;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentMs = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    // False if the deadline falls in the current tick: the caller runs the item now
+    boolean add(long deadlineMs, T item) {
+        if (!place(new Entry<>(deadlineMs, item))) {
+            return false;
+        }
+        pending++;
+        return true;
+    }
+
+    // Moves the clock to nowMs and hands over every item whose tick has come, in deadline order by tick
+    void advance(long nowMs, Consumer<T> expired) {
+        while (currentMs + tickMs <= nowMs) {
+            tick(currentMs + tickMs, entry -> {
+                pending--;
+                expired.accept(entry.item());
+            });
+        }
+    }
+
+    int pending() {
+        return pending;
+    }
+
+    private boolean place(Entry<T> entry) {
+        if (entry.deadlineMs() < currentMs + tickMs) {
+            return false;
+        }
+        if (entry.deadlineMs() < currentMs + intervalMs) {
+            buckets.get(index(entry.deadlineMs())).add(entry);
+        } else {
+            if (overflow == null) {
+                overflow = new TimingWheel<>(intervalMs, size, currentMs);
+            }
+            overflow.place(entry);
+        }
+        return true;
+    }
+
+    // Enters the tick starting at timeMs: overflow items now within reach come down first, then the
+    // bucket of this tick is emptied into spill
+    private void tick(long timeMs, Consumer<Entry<T>> spill) {
+        currentMs = timeMs;
+        if (overflow != null && Math.floorMod(timeMs, overflow.tickMs) == 0) {
+            overflow.tick(timeMs, entry -> {
+                if (!place(entry)) {
+                    spill.accept(entry);
+                }
+            });
+        }
+        List<Entry<T>> bucket = buckets.get(index(timeMs));
+        if (!bucket.isEmpty()) {
+            buckets.set(index(timeMs), new ArrayList<>());
+            bucket.forEach(spill);
+        }
+    }
+
+    private int index(long timeMs) {
+        return (int) Math.floorMod(Math.floorDiv(timeMs, tickMs), (long) size);
+    }
+}
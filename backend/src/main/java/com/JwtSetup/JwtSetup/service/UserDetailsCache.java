@@ -0,0 +1,71 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Per-user cache for the requests that cannot be authenticated from token claims alone.
+ * <p>
+ * When a {@code User} row changes (disabled, roles edited), {@link #evict(String)} records the
+ * time of the change. Access tokens issued before that point are then resolved through
+ * {@link #get(String)}, which reads the user from the database at most once per TTL.
+ * Change markers live as long as an access token, after which every older token has expired anyway.
+ * <p>
+ * Markers are kept in this JVM only. With several instances, a change is seen by the instance that
+ * made it; the others keep trusting the claims of older tokens until those expire
+ * ({@code jwt.accessTokenExpirationMs}), so keep access tokens short-lived there.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, UserDetailsImpl> accounts;
+
+    private final Cache<String, Long> changedAt;
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    public UserDetailsCache(UserDetailsServiceImpl userDetailsService,
+                            @Value("${security.userCache.maxEntries:10000}") long maxEntries,
+                            @Value("${security.userCache.ttlSeconds:300}") long ttlSeconds,
+                            @Value("${jwt.accessTokenExpirationMs}") long accessTokenExpirationMs) {
+        this.userDetailsService = userDetailsService;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.changedAt = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(accessTokenExpirationMs))
+                .build();
+    }
+
+    public UserDetailsImpl get(String username) {
+        return accounts.get(username, name -> (UserDetailsImpl) userDetailsService.loadUserByUsername(name));
+    }
+
+    // True if the user changed after this token was issued, so its claims may be stale.
+    // iat has second precision: a token issued in the second of the change may predate it, so it counts as stale too.
+    public boolean changedSince(String username, Date issuedAt) {
+        Long changed = changedAt.getIfPresent(username);
+        return changed != null && (issuedAt == null || issuedAt.getTime() <= changed - changed % 1000);
+    }
+
+    public void evict(String username) {
+        changedAt.put(username, System.currentTimeMillis());
+        accounts.invalidate(username);
+    }
+
+    public long hitCount() {
+        return accounts.stats().hitCount();
+    }
+
+    public long missCount() {
+        return accounts.stats().missCount();
+    }
+}
@@ -0,0 +1,72 @@
+-- Schema as Hibernate's ddl-auto=update created it for the released entities, before migrations were
+-- introduced. Databases that already have it are baselined at version 1 (spring.flyway.baseline-on-migrate)
+-- and skip this script; every later change is a migration of its own.
+
+create table projects (
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    color varchar(255),
+    description varchar(255),
+    title varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table roles (
+    id bigint not null auto_increment,
+    name varchar(20),
+    primary key (id)
+) engine=InnoDB;
+
+create table tasks (
+    completed bit not null,
+    due_date date,
+    id bigint not null auto_increment,
+    project_id bigint not null,
+    description varchar(255),
+    section varchar(255),
+    title varchar(255) not null,
+    status enum ('COMPLETED','IN_PROGRESS','NOT_STARTED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table user_roles (
+    role_id bigint not null,
+    user_id bigint not null,
+    primary key (role_id, user_id)
+) engine=InnoDB;
+
+create table users (
+    enabled bit not null,
+    id bigint not null auto_increment,
+    password varchar(255) not null,
+    refresh_token varchar(255),
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table roles
+   add constraint UKofx66keruapi6vyqpv6f2or37 unique (name);
+
+alter table users
+   add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table projects
+   add constraint FKhswfwa3ga88vxv1pmboss6jhm
+   foreign key (user_id)
+   references users (id);
+
+alter table tasks
+   add constraint FKsfhn82y57i3k9uxww1s007acc
+   foreign key (project_id)
+   references projects (id);
+
+alter table user_roles
+   add constraint FKh8ciramu9cc9q3qcqiv4ue8a6
+   foreign key (role_id)
+   references roles (id);
+
+alter table user_roles
+   add constraint FKhfh9dx7w3ubf1co1vdev94g3f
+   foreign key (user_id)
+   references users (id);
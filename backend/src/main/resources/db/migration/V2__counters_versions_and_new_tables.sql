@@ -0,0 +1,115 @@
+-- Schema changes of the entities since the baseline. Existing rows are backfilled by V3 and V4;
+-- the finder indexes over the backfilled columns come last, in V5.
+
+-- Task counters (ProjectCounterService) and the version behind project ETags
+alter table projects add column completed_tasks bigint not null default 0;
+alter table projects add column in_progress_tasks bigint not null default 0;
+alter table projects add column not_started_tasks bigint not null default 0;
+alter table projects add column status_completed_tasks bigint not null default 0;
+alter table projects add column total_tasks bigint not null default 0;
+alter table projects add column version bigint not null default 0;
+
+-- Tasks take their ids from the pooled tasks_seq instead of AUTO_INCREMENT, so bulk inserts batch
+alter table tasks modify column id bigint not null;
+alter table tasks add column reminded_for date;
+alter table tasks add column owner_id bigint;
+alter table tasks add column version bigint not null default 0;
+
+create table tasks_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into tasks_seq values ( 1 );
+
+-- Refresh tokens moved to their own table; tokens stored on the user are no longer accepted
+alter table users drop column refresh_token;
+
+create table refresh_tokens (
+    revoked bit not null,
+    expires_at datetime(6) not null,
+    id bigint not null auto_increment,
+    used_at datetime(6),
+    user_id bigint not null,
+    family_id varchar(36) not null,
+    token_hash varchar(64) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table attachment_blobs (
+    created_at datetime(6) not null,
+    ref_count bigint not null,
+    size bigint not null,
+    sha256 varchar(64) not null,
+    primary key (sha256)
+) engine=InnoDB;
+
+create table attachments (
+    id bigint not null auto_increment,
+    size bigint not null,
+    task_id bigint not null,
+    uploaded_at datetime(6) not null,
+    uploaded_by bigint,
+    blob_sha256 varchar(64) not null,
+    content_type varchar(100) not null,
+    filename varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table task_reminders (
+    due_date date not null,
+    created_at datetime(6) not null,
+    delivered_at datetime(6),
+    id bigint not null auto_increment,
+    owner_id bigint,
+    project_id bigint not null,
+    task_id bigint not null,
+    title varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_refresh_tokens_family
+   on refresh_tokens (family_id);
+
+create index idx_refresh_tokens_expires_at
+   on refresh_tokens (expires_at);
+
+alter table refresh_tokens
+   add constraint uk_refresh_tokens_hash unique (token_hash);
+
+create index idx_attachment_blobs_ref_count
+   on attachment_blobs (ref_count);
+
+create index idx_attachments_blob
+   on attachments (blob_sha256);
+
+create index idx_attachments_uploaded_by
+   on attachments (uploaded_by);
+
+alter table attachments
+   add constraint uk_attachments_task_filename unique (task_id, filename);
+
+create index idx_task_reminders_delivered_at
+   on task_reminders (delivered_at, id);
+
+alter table task_reminders
+   add constraint uk_task_reminders_task_due_date unique (task_id, due_date);
+
+alter table refresh_tokens
+   add constraint FK1lih5y2npsf8u5o3vhdb9y0os
+   foreign key (user_id)
+   references users (id);
+
+alter table attachments
+   add constraint FK5jg6hepmylr9ubbei8k7dyfy
+   foreign key (blob_sha256)
+   references attachment_blobs (sha256);
+
+alter table attachments
+   add constraint FKq4u9ne3x0xtpc5d2jdddv1ii7
+   foreign key (task_id)
+   references tasks (id);
+
+alter table attachments
+   add constraint FKl3qeaqe1mykgrd4ltgmqthdkp
+   foreign key (uploaded_by)
+   references users (id);
@@ -0,0 +1,12 @@
+-- Tasks used to get their ids from AUTO_INCREMENT. The pooled sequence that replaced it is the one-row
+-- tasks_seq table, which starts at 1; a pooled block ends at next_val (allocation size 50), so keep a
+-- whole block above the highest id already in use.
+update tasks_seq
+   set next_val = (select coalesce(max(id), 0) + 51 from tasks)
+ where next_val < (select coalesce(max(id), 0) + 51 from tasks);
+
+-- tasks.owner_id copies the project owner so the cross-project task list reads one index.
+-- New tasks set it on insert; rows written before the column existed are filled here.
+update tasks
+   set owner_id = (select p.user_id from projects p where p.id = tasks.project_id)
+ where owner_id is null;
@@ -0,0 +1,10 @@
+-- Task counters on projects are kept up to date by every task write; rows that existed before the
+-- columns did are counted here once. The version bump makes clients drop summaries cached under
+-- the old ETags, which showed zero tasks.
+update projects
+   set version = version + 1,
+       total_tasks = (select count(*) from tasks t where t.project_id = projects.id),
+       completed_tasks = (select count(*) from tasks t where t.project_id = projects.id and t.completed = true),
+       not_started_tasks = (select count(*) from tasks t where t.project_id = projects.id and t.status = 'NOT_STARTED'),
+       in_progress_tasks = (select count(*) from tasks t where t.project_id = projects.id and t.status = 'IN_PROGRESS'),
+       status_completed_tasks = (select count(*) from tasks t where t.project_id = projects.id and t.status = 'COMPLETED');
@@ -0,0 +1,35 @@
+-- Finder indexes, created once V3 and V4 have filled the columns they cover.
+
+-- Filtered and keyset-paginated task listing of a project (status, section, completed, due date)
+create index idx_tasks_project_status
+   on tasks (project_id, status, id);
+
+create index idx_tasks_project_section
+   on tasks (project_id, section, id);
+
+create index idx_tasks_project_completed
+   on tasks (project_id, completed, id);
+
+create index idx_tasks_project_due_date
+   on tasks (project_id, due_date, id);
+
+-- Cross-project task list of the signed-in user (GET /api/tasks)
+create index idx_tasks_owner_due_date
+   on tasks (owner_id, due_date, id);
+
+create index idx_tasks_owner_completed_due_date
+   on tasks (owner_id, completed, due_date, id);
+
+-- Reminder scan: open tasks due on a date, not yet reminded for it
+create index idx_tasks_completed_due_date
+   on tasks (completed, due_date, id, reminded_for);
+
+-- Projects of a user: findByUserId, the ownership joins on users.username and the ETag version lookups
+-- are all one range of this index; id and version are read from it without touching the rows.
+-- MySQL drops the index it created for the user_id foreign key, which this one now serves.
+create index idx_projects_user_version
+   on projects (user_id, id, version);
+
+-- Roles of a user (the users.roles collection, loaded with every user) without visiting the rows
+create index idx_user_roles_user_role
+   on user_roles (user_id, role_id);
@@ -0,0 +1,53 @@
+package com.JwtSetup.JwtSetup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of a {@code benchmark}-tagged test: each one is logged and the whole run is rewritten to
+ * {@code target/benchmarks/{name}.json} (directory: {@code -Dbenchmark.reportDir}), so a partial
+ * run still leaves what it measured.
+ */
+public final class BenchmarkResults {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkResults.class);
+
+    private final String name;
+
+    private final Path file;
+
+    private final List<Map<String, Object>> results = new ArrayList<>();
+
+    public BenchmarkResults(String name) {
+        this.name = name;
+        this.file = Paths.get(System.getProperty("benchmark.reportDir", "target/benchmarks"), name + ".json");
+    }
+
+    // Alternating names and values, e.g. add("tasks", 10_000, "bulk_ms", 412)
+    public void add(Object... namesAndValues) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            result.put(String.valueOf(namesAndValues[i]), namesAndValues[i + 1]);
+        }
+        results.add(result);
+        log.info("{} {}", name, result);
+        try {
+            Files.createDirectories(file.getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), results);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Malformed query parameters and bulk bodies are the client's mistake: 400, never 401 or 500
+@SpringBootTest
+@AutoConfigureMockMvc
+class BadRequestTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+
+    private String tasks;
+
+    @BeforeEach
+    void signIn() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"user@gmail.com\",\"password\":\"1234\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        token = "Bearer " + objectMapper.readTree(body).path("accessToken").asText();
+        String project = mockMvc.perform(post("/api/projects").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Filters\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        tasks = "/api/projects/" + objectMapper.readTree(project).path("id").asLong() + "/tasks";
+    }
+
+    @Test
+    void projectTaskFilters() throws Exception {
+        mockMvc.perform(get(tasks).param("status", "DONE").header("Authorization", token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid status: DONE"));
+        mockMvc.perform(get(tasks).param("cursor", "abc").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(tasks).param("sort", "dueDate").param("cursor", "2026-13-01_5").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ownTaskFilters() throws Exception {
+        mockMvc.perform(get("/api/tasks").param("due", "later").header("Authorization", token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid due window: later"));
+        mockMvc.perform(get("/api/tasks").param("status", "DONE").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tasks").param("cursor", "none_x").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void overlappingBulkOperations() throws Exception {
+        mockMvc.perform(post(tasks + "/bulk").header("Authorization", token).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"update\":[{\"id\":7,\"title\":\"x\"}],\"delete\":[7]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Tasks both updated and deleted: [7]"));
+        mockMvc.perform(post(tasks + "/bulk").header("Authorization", token).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"update\":[{\"title\":\"x\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,127 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileResponseWriterTests {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+    private static final String ETAG = "abc123";
+    private static final Instant MODIFIED = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final FileResponseWriter writer = new FileResponseWriter();
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void setup() throws Exception {
+        file = Files.writeString(dir.resolve("blob"), CONTENT);
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(request, response, file, CONTENT.length(), ETAG, MODIFIED, "text/plain", "attachment");
+        return response;
+    }
+
+    private MockHttpServletRequest request(String... headers) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        return request;
+    }
+
+    @Test
+    void sendsWholeFileWithValidators() throws Exception {
+        MockHttpServletResponse response = get(request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("\"" + ETAG + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("private, no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void answersMatchingETagWith304() throws Exception {
+        MockHttpServletResponse response = get(request(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\""));
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void servesSingleRange() throws Exception {
+        MockHttpServletResponse response = get(request(HttpHeaders.RANGE, "bytes=5-9"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString());
+        assertEquals("bytes 5-9/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(5, response.getContentLengthLong());
+    }
+
+    @Test
+    void servesMultipleRangesAsByteranges() throws Exception {
+        MockHttpServletResponse response = get(request(HttpHeaders.RANGE, "bytes=0-1,-3"));
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        String body = response.getContentAsString(StandardCharsets.US_ASCII);
+        assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 17-19/20\r\n\r\nhij\r\n"));
+        assertEquals(response.getContentLengthLong(), response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void ignoresRangeWhenIfRangeIsStale() throws Exception {
+        MockHttpServletResponse stale = get(request(HttpHeaders.RANGE, "bytes=5-9", HttpHeaders.IF_RANGE, "\"other\""));
+        assertEquals(200, stale.getStatus());
+        assertEquals(CONTENT, stale.getContentAsString());
+
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(MODIFIED.atZone(ZoneOffset.UTC));
+        MockHttpServletResponse fresh = get(request(HttpHeaders.RANGE, "bytes=5-9", HttpHeaders.IF_RANGE, date));
+        assertEquals(206, fresh.getStatus());
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() throws Exception {
+        MockHttpServletResponse response = get(request(HttpHeaders.RANGE, "bytes=50-60"));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void handsLargeBodiesToSendfile() throws Exception {
+        file = Files.write(dir.resolve("large"), new byte[100_000]);
+        MockHttpServletRequest request = request(HttpHeaders.RANGE, "bytes=1000-");
+        request.setAttribute(FileResponseWriter.SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.write(request, response, file, 100_000, ETAG, MODIFIED, "application/pdf", "attachment");
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute(FileResponseWriter.SENDFILE_FILENAME_ATTR));
+        assertEquals(1000L, request.getAttribute(FileResponseWriter.SENDFILE_START_ATTR));
+        assertEquals(100_000L, request.getAttribute(FileResponseWriter.SENDFILE_END_ATTR));
+    }
+}
@@ -0,0 +1,138 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import com.JwtSetup.JwtSetup.entity.Attachment;
+import com.JwtSetup.JwtSetup.entity.AttachmentBlob;
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.repo.AttachmentBlobRepository;
+import com.JwtSetup.JwtSetup.repo.AttachmentRepository;
+import com.JwtSetup.JwtSetup.repo.ProjectRepository;
+import com.JwtSetup.JwtSetup.repo.TaskRepository;
+import com.JwtSetup.JwtSetup.repo.UserRepository;
+import com.JwtSetup.JwtSetup.service.AttachmentStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Downloads a 3 GiB attachment through the real server while the heap is far smaller than the file.
+ * Run with {@code mvn test -Plarge-files} (which sets -Xmx256m).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Tag("large-files")
+class LargeAttachmentDownloadTests {
+
+    private static final long SIZE = 3L * 1024 * 1024 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private AttachmentBlobRepository attachmentBlobRepository;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void streamsMultiGigabyteFileWithBoundedHeap() throws Exception {
+        assumeTrue(Runtime.getRuntime().maxMemory() < SIZE / 4, "needs a heap much smaller than the fixture");
+
+        Project project = new Project();
+        project.setTitle("large");
+        project.setUser(userRepository.findByUsername("user@gmail.com").orElseThrow());
+        project = projectRepository.save(project);
+        Task task = taskRepository.save(new Task("large", null, null, project));
+
+        // Sparse fixture: takes no real disk space; the name only has to be a 64-char hex digest
+        String sha256 = "f".repeat(64);
+        Path blobFile = attachmentStore.blobPath(sha256);
+        Files.createDirectories(blobFile.getParent());
+        try (RandomAccessFile raf = new RandomAccessFile(blobFile.toFile(), "rw")) {
+            raf.setLength(SIZE);
+        }
+        try {
+            AttachmentBlob blob = new AttachmentBlob();
+            blob.setSha256(sha256);
+            blob.setSize(SIZE);
+            blob.setRefCount(1);
+            blob.setCreatedAt(Instant.now());
+            attachmentBlobRepository.save(blob);
+            Attachment attachment = new Attachment();
+            attachment.setTask(task);
+            attachment.setBlob(blob);
+            attachment.setFilename("large.pdf");
+            attachment.setSize(SIZE);
+            attachment.setContentType("application/pdf");
+            attachment.setUploadedAt(Instant.now());
+            attachmentRepository.save(attachment);
+
+            String url = "http://localhost:" + port + "/api/projects/" + project.getId() + "/tasks/" + task.getId()
+                    + "/attachments/large.pdf";
+            String token = signIn();
+
+            HttpResponse<InputStream> full = http.send(HttpRequest.newBuilder(URI.create(url))
+                    .header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofInputStream());
+            assertEquals(200, full.statusCode());
+            assertEquals(SIZE, drain(full.body()));
+
+            HttpResponse<InputStream> tail = http.send(HttpRequest.newBuilder(URI.create(url))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Range", "bytes=" + (SIZE - 1024) + "-").build(), HttpResponse.BodyHandlers.ofInputStream());
+            assertEquals(206, tail.statusCode());
+            assertEquals(1024, drain(tail.body()));
+        } finally {
+            Files.deleteIfExists(blobFile);
+        }
+    }
+
+    private String signIn() throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"user@gmail.com\",\"password\":\"1234\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        return (String) new ObjectMapper().readValue(response.body(), Map.class).get("accessToken");
+    }
+
+    private static long drain(InputStream body) throws Exception {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (body) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+}
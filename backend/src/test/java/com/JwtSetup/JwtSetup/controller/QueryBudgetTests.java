@@ -0,0 +1,115 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import com.JwtSetup.JwtSetup.config.QueryBudgetChecker;
+import com.JwtSetup.JwtSetup.exception.QueryBudgetExceededException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the main endpoints against a project with enough tasks and attachments that a query per
+ * row would blow the endpoint's {@code @QueryBudget}; the test properties set
+ * {@code queries.budget.mode=fail}, so any overrun fails the request here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetTests {
+
+    private static final int TASKS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void endpointsStayWithinTheirQueryBudgets() throws Exception {
+        JsonNode tokens = json(perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"user@gmail.com\",\"password\":\"1234\"}"), null));
+        String token = tokens.path("accessToken").asText();
+
+        long projectId = json(perform(post("/api/projects").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Budget\",\"description\":\"query budgets\"}"), token)).path("id").asLong();
+        String project = "/api/projects/" + projectId;
+        List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            taskIds.add(json(perform(post(project + "/tasks").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\":\"Task " + i + "\",\"section\":\"To do\",\"dueDate\":\"2030-01-"
+                            + String.format("%02d", i % 28 + 1) + "\"}"), token)).path("id").asLong());
+        }
+        for (int i = 0; i < 5; i++) {
+            perform(multipart(project + "/tasks/" + taskIds.get(i) + "/attachments")
+                    .file(new MockMultipartFile("file", "notes.txt", "text/plain",
+                            ("notes " + i).getBytes(StandardCharsets.UTF_8))), token);
+        }
+        String task = project + "/tasks/" + taskIds.get(0);
+
+        perform(get("/api/projects"), token);
+        perform(get("/api/projects").param("includeTasks", "true"), token);
+        perform(get(project), token);
+        perform(get(project + "/progress"), token);
+        perform(get(project + "/tasks").param("limit", "50"), token);
+        perform(get(project + "/tasks").param("sort", "dueDate").param("completed", "false"), token);
+        perform(get("/api/tasks").param("limit", "50"), token);
+        perform(get("/api/search").param("q", "task"), token);
+        perform(put(project).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Budget 2\",\"description\":\"renamed\"}"), token);
+        perform(put(task).contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Renamed\"}"), token);
+        perform(patch(task + "/toggle"), token);
+        perform(patch(task + "/status"), token);
+        perform(get(task + "/attachments"), token);
+        perform(get(task + "/attachments/notes.txt"), token);
+        perform(post(project + "/tasks/bulk").contentType(MediaType.APPLICATION_JSON).content(
+                "{\"create\":[{\"title\":\"Bulk 1\"},{\"title\":\"Bulk 2\"}],\"update\":[{\"id\":" + taskIds.get(1)
+                        + ",\"title\":\"Bulk renamed\"}],\"delete\":[" + taskIds.get(2) + "]}"), token);
+        perform(delete(task + "/attachments/notes.txt"), token);
+        perform(delete(task), token);
+        JsonNode refreshed = json(perform(post("/api/auth/refresh")
+                .header("Authorization", "Bearer " + tokens.path("refreshToken").asText()), null));
+        perform(post("/api/auth/logout"), refreshed.path("accessToken").asText());
+        perform(delete(project), token);
+    }
+
+    @Test
+    void failsRequestsOverBudgetAndReportsRepeatedStatements() {
+        QueryBudgetChecker checker = new QueryBudgetChecker("fail", 3, 5, 0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/things");
+
+        checker.check(request, "GET /api/things", 3, Map.of("select t from tasks t where t.id=?", 3));
+        QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class, () ->
+                checker.check(request, "GET /api/things", 7, Map.of("select t from tasks t where t.id=?", 6)));
+        assertTrue(e.getMessage().contains("ran 7 SQL statements (budget 3)"));
+        assertTrue(e.getMessage().contains("6x select t from tasks t where t.id=?"));
+    }
+
+    private String perform(MockHttpServletRequestBuilder request, String token) throws Exception {
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private JsonNode json(String body) throws Exception {
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,148 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.service.ProjectService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read routing with the second-level cache on, as in production: rows read from a lagging replica
+ * must not reach the cache, and a writer's reads must stay on the primary while the write runs.
+ * The replica is a copy of the primary taken in {@link #replicate()}, then edited to tell them apart.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadRoutingCacheTests.PRIMARY,
+        "datasource.replicas.urls=" + ReadRoutingCacheTests.REPLICA + ";IFEXISTS=TRUE",
+        "datasource.replicas.stickyMs=" + ReadRoutingCacheTests.STICKY_MS
+})
+@AutoConfigureMockMvc
+class ReadRoutingCacheTests {
+
+    static final String PRIMARY = "jdbc:h2:mem:cache-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA = "jdbc:h2:mem:cache-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final long STICKY_MS = 300;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    @Qualifier("readYourWritesFilter")
+    private OncePerRequestFilter readYourWritesFilter;
+
+    private String token;
+
+    private long id;
+
+    @BeforeEach
+    void createAndReplicate() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"user@gmail.com\",\"password\":\"1234\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        token = "Bearer " + objectMapper.readTree(body).path("accessToken").asText();
+        String project = mockMvc.perform(post("/api/projects").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Original\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        id = objectMapper.readTree(project).path("id").asLong();
+        replicate();
+        execute(REPLICA, "update projects set title = 'Lagging' where id = " + id);
+        entityManagerFactory.getCache().evictAll();
+        Thread.sleep(STICKY_MS + 100);
+    }
+
+    @Test
+    void replicaReadsDoNotFillTheCache() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 2; i++) {
+            String body = mockMvc.perform(get("/api/projects/" + id).header("Authorization", token))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            assertEquals("Lagging", objectMapper.readTree(body).path("title").asText());
+        }
+
+        assertFalse(entityManagerFactory.getCache().contains(Project.class, id));
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+        assertEquals(0, statistics.getQueryCachePutCount());
+    }
+
+    @Test
+    void readsDuringAWriteStayOnThePrimary() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/projects/" + id);
+        List<String> titles = new ArrayList<>();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user@gmail.com", null, List.of()));
+        try {
+            readYourWritesFilter.doFilter(request, new MockHttpServletResponse(),
+                    (req, res) -> titles.add(projectService.getProjectById(id, "user@gmail.com").getTitle()));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertEquals(List.of("Original"), titles);
+    }
+
+    // Recreates the replica as a copy of the primary
+    private static void replicate() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet rows = statement.executeQuery("script")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("drop all objects");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static void execute(String url, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
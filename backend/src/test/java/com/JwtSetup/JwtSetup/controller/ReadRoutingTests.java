@@ -0,0 +1,128 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two embedded databases stand in for the primary and a replica. Replication is a schema and data
+ * copy taken when the test asks for it, so the replica lags the primary until then; rows changed
+ * directly on the replica show which database answered a read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadRoutingTests.PRIMARY,
+        "datasource.replicas.urls=" + ReadRoutingTests.REPLICA + ";IFEXISTS=TRUE",
+        "datasource.replicas.stickyMs=" + ReadRoutingTests.STICKY_MS,
+        "datasource.replicas.retryAfterMs=" + ReadRoutingTests.RETRY_AFTER_MS,
+        "datasource.replicas.connectionTimeoutMs=250",
+        // Reads must reach a database to show where they went
+        "cache.secondLevel.enabled=false"
+})
+@AutoConfigureMockMvc
+class ReadRoutingTests {
+
+    static final String PRIMARY = "jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final long STICKY_MS = 300;
+
+    static final long RETRY_AFTER_MS = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void readsUseTheReplicaExceptAfterOwnWritesOrWhileItIsDown() throws Exception {
+        String token = json(perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"user@gmail.com\",\"password\":\"1234\"}"), null)).path("accessToken").asText();
+        long id = json(perform(post("/api/projects").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Original\"}"), token)).path("id").asLong();
+        String project = "/api/projects/" + id;
+        replicate();
+        execute(REPLICA, "update projects set title = 'Replica copy' where id = " + id);
+
+        // Right after the create, the creator reads from the primary
+        assertEquals("Original", json(perform(get(project), token)).path("title").asText());
+        Thread.sleep(STICKY_MS + 100);
+        assertEquals("Replica copy", json(perform(get(project), token)).path("title").asText());
+        assertEquals("Replica copy", json(perform(get(project + "/progress"), token)).path("title").asText());
+
+        perform(put(project).contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Renamed\"}"), token);
+        assertEquals("Renamed", json(perform(get(project), token)).path("title").asText());
+        Thread.sleep(STICKY_MS + 100);
+        assertEquals("Replica copy", json(perform(get(project), token)).path("title").asText());
+
+        // Down replica: reads fall back to the primary until retryAfterMs has passed
+        execute(REPLICA, "shutdown");
+        Thread.sleep(600);
+        assertEquals("Renamed", json(perform(get(project), token)).path("title").asText());
+        replicate();
+        assertEquals("Renamed", json(perform(get(project), token)).path("title").asText());
+        execute(REPLICA, "update projects set title = 'Replica again' where id = " + id);
+        Thread.sleep(RETRY_AFTER_MS);
+        assertEquals("Replica again", json(perform(get(project), token)).path("title").asText());
+
+        perform(delete(project), token);
+    }
+
+    // Recreates the replica as a copy of the primary
+    private static void replicate() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet rows = statement.executeQuery("script")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("drop all objects");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static void execute(String url, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private String perform(MockHttpServletRequestBuilder request, String token) throws Exception {
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private JsonNode json(String body) throws Exception {
+        return objectMapper.readTree(body);
+    }
+}
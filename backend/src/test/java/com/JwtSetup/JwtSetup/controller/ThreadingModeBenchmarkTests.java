@@ -0,0 +1,148 @@
+package com.JwtSetup.JwtSetup.controller;
+
+import com.JwtSetup.JwtSetup.BenchmarkResults;
+import com.JwtSetup.JwtSetup.JwtSetupApplication;
+import com.JwtSetup.JwtSetup.config.ThreadingConfig;
+import com.JwtSetup.JwtSetup.dto.ProjectDTO;
+import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.service.AttachmentService;
+import com.JwtSetup.JwtSetup.service.ProjectService;
+import com.JwtSetup.JwtSetup.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Request throughput on platform threads against virtual threads, over a concurrency sweep.
+ * Each client alternates a task page (database) and a 256 KiB attachment download (disk).
+ * Tomcat is capped at {@value #TOMCAT_THREADS} platform threads so saturation shows at modest
+ * concurrency. The virtual-thread run needs a Java 21+ runtime and is skipped below that.
+ * Run with {@code mvn test -Pbenchmark} (results in {@code target/benchmarks/threading-benchmark.json}); pass {@code -Dspring.datasource.url=...} (and credentials)
+ * to measure against MySQL instead of H2.
+ */
+@Tag("benchmark")
+class ThreadingModeBenchmarkTests {
+
+    private static final int TOMCAT_THREADS = 50;
+
+    private static final int[] CONCURRENCY = {8, 32, 128, 512};
+
+    private static final long WINDOW_MS = 5_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BenchmarkResults results = new BenchmarkResults("threading-benchmark");
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        run(false);
+        if (Runtime.version().feature() >= 21) {
+            run(true);
+        } else {
+            results.add("mode", "virtual", "skipped", "Java " + Runtime.version().feature());
+        }
+    }
+
+    private void run(boolean virtual) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JwtSetupApplication.class).run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.springframework.security=INFO")) {
+            assertEquals(virtual, context.getBean(ThreadingConfig.class).isVirtual());
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            ProjectDTO project = context.getBean(ProjectService.class)
+                    .createProject(new ProjectDTO(null, "bench", null), "user@gmail.com");
+            TaskService taskService = context.getBean(TaskService.class);
+            TaskDTO task = null;
+            for (int i = 0; i < 100; i++) {
+                TaskDTO dto = new TaskDTO();
+                dto.setTitle("task " + i);
+                task = taskService.createTask(project.getId(), dto, "user@gmail.com");
+            }
+            context.getBean(AttachmentService.class).upload(project.getId(), task.getId(), "bench.txt",
+                    new ByteArrayInputStream(new byte[256 * 1024]), "user@gmail.com");
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String token = signIn(client, base);
+            List<URI> targets = List.of(
+                    URI.create(base + "/api/projects/" + project.getId() + "/tasks?limit=50"),
+                    URI.create(base + "/api/projects/" + project.getId() + "/tasks/" + task.getId() + "/attachments/bench.txt"));
+
+            for (int concurrency : CONCURRENCY) {
+                sweepStep(client, token, targets, concurrency, virtual ? "virtual" : "platform");
+            }
+        }
+    }
+
+    private void sweepStep(HttpClient client, String token, List<URI> targets, int concurrency, String mode) throws Exception {
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong latencyNanos = new AtomicLong();
+        long deadline = System.nanoTime() + WINDOW_MS * 1_000_000;
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int c = 0; c < concurrency; c++) {
+                int offset = c;
+                workers.add(clients.submit(() -> {
+                    for (int i = offset; System.nanoTime() < deadline; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(targets.get(i % targets.size()))
+                                .header("Authorization", "Bearer " + token).GET().build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() == 200) {
+                                completed.incrementAndGet();
+                                latencyNanos.addAndGet(System.nanoTime() - start);
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        long ok = completed.get();
+        results.add("mode", mode, "concurrency", concurrency, "requests", ok, "failed", failed.get(),
+                "rps", ok * 1000.0 / WINDOW_MS, "mean_ms", ok == 0 ? 0.0 : latencyNanos.get() / 1e6 / ok);
+        assertTrue(ok > 0);
+    }
+
+    private String signIn(HttpClient client, String base) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"user@gmail.com\",\"password\":\"1234\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return (String) objectMapper.readValue(response.body(), Map.class).get("accessToken");
+    }
+}
@@ -0,0 +1,83 @@
+package com.JwtSetup.JwtSetup.loadtest;
+
+import com.JwtSetup.JwtSetup.JwtSetupApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application on embedded H2 in MySQL mode, seeds a synthetic dataset and drives a
+ * fixed-rate mix of project, task, attachment and auth calls over HTTP; everything runs offline.
+ * Latency percentiles and throughput per endpoint are printed and written to {@code target/loadtest},
+ * next to a Prometheus scrape of the server's metrics taken at the end of the run.
+ * <pre>mvn test -Ploadtest -Dloadtest.users=200 -Dloadtest.tasksPerProject=500 -Dloadtest.rate=300</pre>
+ * See {@link LoadTestSettings} for every knob. Reminders are off and sign-in limits raised so the
+ * numbers describe request handling only.
+ */
+@Tag("loadtest")
+class EndToEndLoadTests {
+
+    @Test
+    void fixedRateMix() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        FileSystemUtils.deleteRecursively(Paths.get(settings.reportDir()));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JwtSetupApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.springframework.security=INFO",
+                "--attachments.root=" + Paths.get(settings.reportDir(), "uploads"),
+                "--reminders.enabled=false",
+                "--queries.budget.mode=log",
+                "--jwt.accessTokenExpirationMs=3600000",
+                "--security.signin.perUser.burst=1000000",
+                "--security.signin.perUser.perMinute=1000000",
+                "--security.signin.perAddress.burst=1000000",
+                "--security.signin.perAddress.perMinute=1000000")) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            long seedStart = System.nanoTime();
+            List<SyntheticDataset.SeededUser> users = new SyntheticDataset(settings).seed(context);
+            System.out.printf("loadtest seeded users=%d projects=%d tasks=%d in %d ms%n", users.size(),
+                    users.size() * settings.projectsPerUser(),
+                    users.size() * settings.projectsPerUser() * settings.tasksPerProject(),
+                    (System.nanoTime() - seedStart) / 1_000_000);
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            List<EndpointMix.Session> sessions = users.stream().map(EndpointMix.Session::new).collect(Collectors.toList());
+            EndpointMix mix = new EndpointMix(base, sessions, settings.mix());
+            for (EndpointMix.Session session : sessions) {
+                EndpointMix.Call signIn = mix.signIn(session);
+                HttpResponse<byte[]> response = client.send(signIn.request(), HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals(200, response.statusCode());
+                signIn.onSuccess().accept(response);
+            }
+
+            LoadDriver driver = new LoadDriver(client, mix, settings);
+            driver.run();
+            driver.report(System.out);
+            // Server-side view of the same run: queries per request, repository and Hibernate timings
+            client.send(HttpRequest.newBuilder(URI.create(base + "/actuator/prometheus")).build(),
+                    HttpResponse.BodyHandlers.ofFile(Paths.get(settings.reportDir(), "metrics.prom")));
+
+            long ok = driver.stats().values().stream().mapToLong(endpoint -> endpoint.ok.sum()).sum();
+            assertTrue(ok > 0);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.JwtSetup.JwtSetup.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Weighted mix of ProjectController and AuthController calls, each made as a random seeded user on
+ * one of their projects. Sign-in and refresh keep the user's tokens current; a refresh token is
+ * single-use, so a user with a refresh in flight is not picked for another one.
+ */
+class EndpointMix {
+
+    // Default weights, roughly a board-heavy web client
+    static final Map<String, Integer> DEFAULT_WEIGHTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_WEIGHTS.put("projects.list", 15);
+        DEFAULT_WEIGHTS.put("projects.listWithTasks", 3);
+        DEFAULT_WEIGHTS.put("projects.get", 10);
+        DEFAULT_WEIGHTS.put("projects.progress", 5);
+        DEFAULT_WEIGHTS.put("tasks.page", 25);
+        DEFAULT_WEIGHTS.put("tasks.dueSoon", 10);
+        DEFAULT_WEIGHTS.put("tasks.create", 8);
+        DEFAULT_WEIGHTS.put("tasks.status", 8);
+        DEFAULT_WEIGHTS.put("attachments.list", 5);
+        DEFAULT_WEIGHTS.put("attachments.download", 5);
+        DEFAULT_WEIGHTS.put("auth.signin", 3);
+        DEFAULT_WEIGHTS.put("auth.refresh", 3);
+    }
+
+    record Call(String name, HttpRequest request, Consumer<HttpResponse<byte[]>> onSuccess) {
+    }
+
+    static final class Session {
+        final SyntheticDataset.SeededUser user;
+        volatile String accessToken;
+        final AtomicReference<String> refreshToken = new AtomicReference<>();
+
+        Session(SyntheticDataset.SeededUser user) {
+            this.user = user;
+        }
+    }
+
+    private final String base;
+
+    private final List<Session> sessions;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final int[] cumulative;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    EndpointMix(String base, List<Session> sessions, Map<String, Integer> overrides) {
+        this.base = base;
+        this.sessions = sessions;
+        Map<String, Integer> weights = new LinkedHashMap<>(DEFAULT_WEIGHTS);
+        overrides.forEach((name, weight) -> {
+            if (!DEFAULT_WEIGHTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown operation " + name + ", expected one of " + DEFAULT_WEIGHTS.keySet());
+            }
+            weights.put(name, weight);
+        });
+        weights.values().removeIf(weight -> weight <= 0);
+        this.cumulative = new int[weights.size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            total += weight.getValue();
+            cumulative[names.size()] = total;
+            names.add(weight.getKey());
+        }
+    }
+
+    List<String> names() {
+        return names;
+    }
+
+    Call next(Random random) {
+        int pick = random.nextInt(cumulative[cumulative.length - 1]);
+        int index = 0;
+        while (cumulative[index] <= pick) {
+            index++;
+        }
+        Session session = sessions.get(random.nextInt(sessions.size()));
+        SyntheticDataset.SeededProject project = session.user.projects().get(random.nextInt(session.user.projects().size()));
+        String projectPath = "/api/projects/" + project.id();
+        switch (names.get(index)) {
+            case "projects.list":
+                return get("projects.list", session, "/api/projects");
+            case "projects.listWithTasks":
+                return get("projects.listWithTasks", session, "/api/projects?includeTasks=true");
+            case "projects.get":
+                return get("projects.get", session, projectPath);
+            case "projects.progress":
+                return get("projects.progress", session, projectPath + "/progress");
+            case "tasks.page":
+                return get("tasks.page", session, projectPath + "/tasks?limit=50");
+            case "tasks.dueSoon":
+                return get("tasks.dueSoon", session, projectPath + "/tasks?sort=dueDate&completed=false&limit=20");
+            case "tasks.create":
+                return new Call("tasks.create", authorized(session, projectPath + "/tasks")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"title\":\"Load task " + random.nextInt(1_000_000) + "\",\"section\":\"To do\"}"))
+                        .build(), response -> { });
+            case "tasks.status":
+                long taskId = project.taskIds().get(random.nextInt(project.taskIds().size()));
+                return new Call("tasks.status", authorized(session, projectPath + "/tasks/" + taskId + "/status")
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody()).build(), response -> { });
+            case "attachments.list":
+            case "attachments.download":
+                return attachmentCall(names.get(index), session, random);
+            case "auth.signin":
+                return signIn(session);
+            default:
+                return refresh(random);
+        }
+    }
+
+    Call signIn(Session session) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + session.user.username()
+                        + "\",\"password\":\"" + SyntheticDataset.PASSWORD + "\"}"))
+                .build();
+        return new Call("auth.signin", request, response -> storeTokens(session, response));
+    }
+
+    private Call refresh(Random random) {
+        int start = random.nextInt(sessions.size());
+        for (int i = 0; i < sessions.size(); i++) {
+            Session session = sessions.get((start + i) % sessions.size());
+            String token = session.refreshToken.getAndSet(null);
+            if (token != null) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/auth/refresh"))
+                        .header("Authorization", "Bearer " + token)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build();
+                return new Call("auth.refresh", request, response -> storeTokens(session, response));
+            }
+        }
+        // every user has a refresh in flight
+        return signIn(sessions.get(start));
+    }
+
+    // Attachments are sparse: look for a project that has some, starting from a random user
+    private Call attachmentCall(String name, Session preferred, Random random) {
+        for (int i = 0; i < sessions.size(); i++) {
+            Session session = i == 0 ? preferred : sessions.get(random.nextInt(sessions.size()));
+            for (SyntheticDataset.SeededProject project : session.user.projects()) {
+                if (!project.attachments().isEmpty()) {
+                    SyntheticDataset.SeededAttachment attachment =
+                            project.attachments().get(random.nextInt(project.attachments().size()));
+                    String taskPath = "/api/projects/" + project.id() + "/tasks/" + attachment.taskId() + "/attachments";
+                    return get(name, session, name.equals("attachments.list") ? taskPath : taskPath + "/" + attachment.filename());
+                }
+            }
+        }
+        return get("projects.list", preferred, "/api/projects");
+    }
+
+    private Call get(String name, Session session, String path) {
+        return new Call(name, authorized(session, path).GET().build(), response -> { });
+    }
+
+    private HttpRequest.Builder authorized(Session session, String path) {
+        return HttpRequest.newBuilder(URI.create(base + path)).header("Authorization", "Bearer " + session.accessToken);
+    }
+
+    private void storeTokens(Session session, HttpResponse<byte[]> response) {
+        try {
+            JsonNode tokens = objectMapper.readTree(response.body());
+            session.accessToken = tokens.path("accessToken").asText();
+            session.refreshToken.set(tokens.path("refreshToken").asText());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable token response", e);
+        }
+    }
+}
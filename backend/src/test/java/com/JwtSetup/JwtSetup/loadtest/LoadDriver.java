@@ -0,0 +1,169 @@
+package com.JwtSetup.JwtSetup.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load at a fixed arrival rate: request i is due at {@code start + i / rate} whether or not
+ * earlier ones have completed, and its latency counts from that due time. A stalled server therefore
+ * shows up in the percentiles instead of slowing the client down (no coordinated omission).
+ * Latencies go to one HdrHistogram per endpoint, in microseconds.
+ */
+class LoadDriver {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    static final class EndpointStats {
+        final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+
+    private final HttpClient client;
+
+    private final EndpointMix mix;
+
+    private final LoadTestSettings settings;
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile int maxInFlight;
+
+    LoadDriver(HttpClient client, EndpointMix mix, LoadTestSettings settings) {
+        this.client = client;
+        this.mix = mix;
+        this.settings = settings;
+        for (String name : mix.names()) {
+            stats.put(name, new EndpointStats());
+        }
+    }
+
+    Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    // Warm-up then measurement; returns once the last measured request completed (or timed out)
+    void run() throws InterruptedException {
+        Random random = new Random(settings.seed());
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.durationSeconds());
+        int limit = Integer.getInteger("loadtest.maxInFlight", 2_000);
+
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measureFrom;
+            EndpointMix.Call call = mix.next(random);
+            if (inFlight.get() >= limit) {
+                // client-side saturation: counted, never silently skipped
+                if (measured) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            maxInFlight = Math.max(maxInFlight, inFlight.incrementAndGet());
+            client.sendAsync(call.request(), HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+                long micros = (System.nanoTime() - due) / 1_000;
+                inFlight.decrementAndGet();
+                boolean success = error == null && response.statusCode() < 400;
+                if (success) {
+                    try {
+                        call.onSuccess().accept(response);
+                    } catch (RuntimeException e) {
+                        success = false;
+                    }
+                }
+                if (!measured) {
+                    return;
+                }
+                EndpointStats endpoint = stats.get(call.name());
+                endpoint.latency.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+                (success ? endpoint.ok : endpoint.failed).increment();
+                endpoint.statuses.computeIfAbsent(error == null ? response.statusCode() : -1, status -> new LongAdder()).increment();
+            });
+        }
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Table on stdout, summary.json and one .hgrm percentile distribution (ms) per endpoint
+    void report(PrintStream out) throws IOException {
+        Path dir = Paths.get(settings.reportDir());
+        Files.createDirectories(dir);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("settings", settings);
+        summary.put("droppedClientSide", dropped.sum());
+        summary.put("maxInFlight", maxInFlight);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        out.printf("%-24s %8s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            Histogram latency = endpoint.latency;
+            long count = latency.getTotalCount();
+            double throughput = count / (double) settings.durationSeconds();
+            out.printf("%-24s %8d %8.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), count, throughput,
+                    endpoint.failed.sum(), ms(latency, 50), ms(latency, 90), ms(latency, 99), ms(latency, 99.9),
+                    latency.getMaxValue() / 1000.0);
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", count);
+            row.put("throughputPerSecond", throughput);
+            row.put("errors", endpoint.failed.sum());
+            Map<Integer, Long> statuses = new TreeMap<>();
+            endpoint.statuses.forEach((status, n) -> statuses.put(status, n.sum()));
+            row.put("statuses", statuses);
+            for (double percentile : List.of(50.0, 90.0, 99.0, 99.9)) {
+                row.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)) + "Ms",
+                        ms(latency, percentile));
+            }
+            row.put("maxMs", latency.getMaxValue() / 1000.0);
+            endpoints.put(entry.getKey(), row);
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(dir.resolve(entry.getKey() + ".hgrm")))) {
+                latency.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        summary.put("endpoints", endpoints);
+        out.printf("dropped client-side=%d max in flight=%d report=%s%n", dropped.sum(), maxInFlight, dir.toAbsolutePath());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(dir.resolve("summary.json").toFile(), summary);
+    }
+
+    private static double ms(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
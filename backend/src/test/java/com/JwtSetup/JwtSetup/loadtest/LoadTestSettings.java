@@ -0,0 +1,41 @@
+package com.JwtSetup.JwtSetup.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size of the synthetic dataset and shape of the load, from {@code -Dloadtest.*} system properties.
+ * {@code mix} overrides operation weights, e.g. {@code -Dloadtest.mix=tasks.page=50,auth.signin=0}.
+ */
+record LoadTestSettings(int users, int projectsPerUser, int tasksPerProject, double attachmentsPerTask,
+                        int attachmentBytes, int distinctBlobs, double rate, int warmupSeconds,
+                        int durationSeconds, long seed, Map<String, Integer> mix, String reportDir) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.users", 50),
+                Integer.getInteger("loadtest.projectsPerUser", 5),
+                Integer.getInteger("loadtest.tasksPerProject", 200),
+                Double.parseDouble(System.getProperty("loadtest.attachmentsPerTask", "0.2")),
+                Integer.getInteger("loadtest.attachmentBytes", 64 * 1024),
+                Integer.getInteger("loadtest.distinctBlobs", 16),
+                Double.parseDouble(System.getProperty("loadtest.rate", "100")),
+                Integer.getInteger("loadtest.warmupSeconds", 10),
+                Integer.getInteger("loadtest.durationSeconds", 30),
+                Long.getLong("loadtest.seed", 42L),
+                parseMix(System.getProperty("loadtest.mix", "")),
+                System.getProperty("loadtest.reportDir", "target/loadtest"));
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] weight = part.split("=", 2);
+            mix.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+}
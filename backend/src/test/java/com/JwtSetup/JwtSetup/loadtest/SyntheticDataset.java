@@ -0,0 +1,155 @@
+package com.JwtSetup.JwtSetup.loadtest;
+
+import com.JwtSetup.JwtSetup.entity.Attachment;
+import com.JwtSetup.JwtSetup.entity.AttachmentBlob;
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Role;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.TaskStatus;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.repo.ProjectRepository;
+import com.JwtSetup.JwtSetup.repo.RoleRepository;
+import com.JwtSetup.JwtSetup.service.AttachmentStore;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeds users × projects × tasks × attachments through JPA, one transaction per user, so rows match
+ * what the application writes (owner ids, sequences, counters). Attachments share a few
+ * content-addressed blobs, as identical files do in production. Deterministic for a given seed.
+ */
+class SyntheticDataset {
+
+    static final String PASSWORD = "load-test";
+
+    private static final String[] SECTIONS = {"Backlog", "To do", "Doing", "Review"};
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    record SeededProject(long id, List<Long> taskIds, List<SeededAttachment> attachments) {
+    }
+
+    record SeededAttachment(long taskId, String filename) {
+    }
+
+    record SeededUser(String username, List<SeededProject> projects) {
+    }
+
+    private final LoadTestSettings settings;
+
+    private final Random random;
+
+    SyntheticDataset(LoadTestSettings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.seed());
+    }
+
+    List<SeededUser> seed(ApplicationContext context) throws IOException {
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        Role role = context.getBean(RoleRepository.class).findByName("ROLE_USER").orElseThrow();
+        List<String> blobs = storeBlobs(context.getBean(AttachmentStore.class));
+        transaction.executeWithoutResult(status -> {
+            for (String sha256 : blobs) {
+                AttachmentBlob blob = new AttachmentBlob();
+                blob.setSha256(sha256);
+                blob.setSize(settings.attachmentBytes());
+                blob.setCreatedAt(Instant.now());
+                entityManager.persist(blob);
+            }
+        });
+        long[] references = new long[blobs.size()];
+        LocalDate today = LocalDate.now();
+
+        List<SeededUser> users = new ArrayList<>();
+        for (int u = 0; u < settings.users(); u++) {
+            String username = "load-user-" + u + "@example.com";
+            List<SeededProject> projects = transaction.execute(status -> {
+                User user = new User();
+                user.setUsername(username);
+                user.setPassword(passwordHash);
+                user.setRoles(new HashSet<>(Set.of(role)));
+                entityManager.persist(user);
+                List<SeededProject> seeded = new ArrayList<>();
+                for (int p = 0; p < settings.projectsPerUser(); p++) {
+                    Project project = new Project();
+                    project.setTitle("Project " + p + " of " + username);
+                    project.setDescription("Synthetic project");
+                    project.setColor(String.format("#%06X", random.nextInt(0x1000000)));
+                    project.setUser(user);
+                    entityManager.persist(project);
+                    List<Long> taskIds = new ArrayList<>();
+                    List<SeededAttachment> attachments = new ArrayList<>();
+                    for (int t = 0; t < settings.tasksPerProject(); t++) {
+                        // one task in five has no due date; the rest spread over two months around today
+                        LocalDate due = random.nextInt(5) == 0 ? null : today.plusDays(random.nextInt(61) - 30);
+                        Task task = new Task("Task " + t + " " + Long.toString(random.nextLong(), 36),
+                                random.nextBoolean() ? "Synthetic description " + t : null, due, project);
+                        task.setSection(SECTIONS[random.nextInt(SECTIONS.length)]);
+                        task.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+                        entityManager.persist(task);
+                        taskIds.add(task.getId());
+                        int count = (int) settings.attachmentsPerTask()
+                                + (random.nextDouble() < settings.attachmentsPerTask() % 1 ? 1 : 0);
+                        for (int a = 0; a < count; a++) {
+                            int blob = random.nextInt(blobs.size());
+                            references[blob]++;
+                            Attachment attachment = new Attachment();
+                            attachment.setTask(task);
+                            attachment.setBlob(entityManager.getReference(AttachmentBlob.class, blobs.get(blob)));
+                            attachment.setFilename("file-" + a + ".txt");
+                            attachment.setSize(settings.attachmentBytes());
+                            attachment.setContentType("text/plain");
+                            attachment.setUploadedAt(Instant.now());
+                            attachment.setUploadedBy(user);
+                            entityManager.persist(attachment);
+                            attachments.add(new SeededAttachment(task.getId(), attachment.getFilename()));
+                        }
+                    }
+                    seeded.add(new SeededProject(project.getId(), taskIds, attachments));
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return seeded;
+            });
+            users.add(new SeededUser(username, projects));
+        }
+
+        transaction.executeWithoutResult(status -> {
+            for (int b = 0; b < blobs.size(); b++) {
+                entityManager.find(AttachmentBlob.class, blobs.get(b)).setRefCount(references[b]);
+            }
+            context.getBean(ProjectRepository.class).recomputeCounters(0L, Long.MAX_VALUE);
+        });
+        return users;
+    }
+
+    // Writes the distinct blob contents to the store; returns their digests
+    private List<String> storeBlobs(AttachmentStore store) throws IOException {
+        List<String> shas = new ArrayList<>();
+        for (int b = 0; b < settings.distinctBlobs(); b++) {
+            byte[] content = new byte[settings.attachmentBytes()];
+            for (int i = 0; i < content.length; i++) {
+                content[i] = (byte) ('a' + random.nextInt(26));
+            }
+            AttachmentStore.StagedBlob staged = store.stage(new ByteArrayInputStream(content));
+            store.commit(staged);
+            shas.add(staged.sha256());
+        }
+        return shas;
+    }
+}
@@ -0,0 +1,77 @@
+package com.JwtSetup.JwtSetup.repo;
+
+import com.JwtSetup.JwtSetup.dto.ProjectDTO;
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ProjectRepositoryTests {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setup() {
+        owner = new User();
+        owner.setUsername("owner");
+        owner.setPassword("pass");
+        em.persist(owner);
+    }
+
+    private Project persistProject(String title, User user, boolean... completed) {
+        Project p = new Project();
+        p.setTitle(title);
+        p.setUser(user);
+        em.persist(p);
+        for (boolean c : completed) {
+            Task t = new Task("task", null, null, p);
+            t.setCompleted(c);
+            em.persist(t);
+        }
+        return p;
+    }
+
+    @Test
+    void summariesReadRepairedCountersWithoutLoadingTasks() {
+        Project full = persistProject("Full", owner, true, false, true, false);
+        Project empty = persistProject("Empty", owner);
+        User other = new User();
+        other.setUsername("other");
+        other.setPassword("pass");
+        em.persist(other);
+        persistProject("Foreign", other, true);
+        em.flush();
+        // tasks were inserted directly, so counters start at zero until repaired
+        assertEquals(3, projectRepository.recomputeCounters(full.getId(), full.getId() + 2));
+        em.clear();
+
+        List<ProjectDTO> summaries = projectRepository.findSummariesByUserUsername("owner");
+
+        assertEquals(2, summaries.size());
+        ProjectDTO first = summaries.get(0);
+        assertEquals(full.getId(), first.getId());
+        assertEquals(4, first.getTotalTasks());
+        assertEquals(2, first.getCompletedTasks());
+        assertEquals(50.0, first.getProgress());
+        assertNull(first.getTasks());
+        ProjectDTO second = summaries.get(1);
+        assertEquals(empty.getId(), second.getId());
+        assertEquals(0, second.getTotalTasks());
+        assertEquals(0.0, second.getProgress());
+    }
+}
@@ -0,0 +1,203 @@
+package com.JwtSetup.JwtSetup.repo;
+
+import com.JwtSetup.JwtSetup.SchemaIndexCheck;
+import com.JwtSetup.JwtSetup.config.QueryCounter;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migrations on H2 in MySQL mode with the MySQL dialect, then has Hibernate validate the
+ * mapping against them; SchemaIndexCheck runs on startup as in the application. A database holding the
+ * released schema and rows must upgrade to the same schema, with the new columns filled. EXPLAIN shows
+ * which index each finder's SQL uses on H2; MySQL plans are not covered.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.JwtSetup.JwtSetup.config.QueryCounter"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SchemaIndexCheck.class)
+class SchemaMigrationTests {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private SchemaIndexCheck schemaIndexCheck;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    void migrationsProduceTheMappedSchema() {
+        assertEquals("5", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void findersUseIndexes() {
+        // H2 picks plans by row counts, and an empty table is cheapest to scan
+        jdbcTemplate.execute("insert into users (id, username, password, enabled) "
+                + "select n, 'user' || n, 'pass', true from system_range(1, 100) r(n)");
+        jdbcTemplate.execute("insert into roles (id, name) values (1, 'ROLE_USER'), (2, 'ROLE_ADMIN')");
+        jdbcTemplate.execute("insert into user_roles (user_id, role_id) select n, 1 from system_range(1, 100) r(n)");
+        jdbcTemplate.execute("insert into projects (id, user_id, title, version, total_tasks, completed_tasks, "
+                + "not_started_tasks, in_progress_tasks, status_completed_tasks) "
+                + "select n, mod(n, 100) + 1, 'project', 0, 0, 0, 0, 0, 0 from system_range(1, 1000) r(n)");
+        jdbcTemplate.execute("insert into tasks (id, project_id, owner_id, title, completed, status, version) "
+                + "select n, mod(n, 1000) + 1, mod(mod(n, 1000), 100) + 1, 'task', false, 'NOT_STARTED', 0 "
+                + "from system_range(1, 10000) r(n)");
+        jdbcTemplate.execute("analyze");
+
+        Map<String, Runnable> finders = new LinkedHashMap<>();
+        finders.put("ProjectRepository.findByUserId", () -> projectRepository.findByUserId(1L));
+        finders.put("ProjectRepository.findByIdAndUserUsername", () -> projectRepository.findByIdAndUserUsername(1L, "user"));
+        finders.put("ProjectRepository.findWithTasksByUserUsername", () -> projectRepository.findWithTasksByUserUsername("user"));
+        finders.put("ProjectRepository.findVersionsByUserUsername", () -> projectRepository.findVersionsByUserUsername("user"));
+        finders.put("TaskRepository.findByProjectIdAndProjectUserUsername",
+                () -> taskRepository.findByProjectIdAndProjectUserUsername(1L, "user"));
+        finders.put("TaskRepository.findByIdAndProjectIdAndProjectUserUsername",
+                () -> taskRepository.findByIdAndProjectIdAndProjectUserUsername(1L, 1L, "user"));
+        finders.put("UserRepository.findByUsername", () -> userRepository.findByUsername("user"));
+        finders.put("UserRepository.findById (with roles)", () -> userRepository.findById(1L));
+        finders.put("RoleRepository.findByName", () -> roleRepository.findByName("ROLE_USER"));
+
+        Map<String, String> plans = new LinkedHashMap<>();
+        for (Map.Entry<String, Runnable> finder : finders.entrySet()) {
+            em.clear();
+            QueryCounter.startRecording();
+            finder.getValue().run();
+            Map<String, Integer> statements = QueryCounter.stopRecording();
+            assertFalse(statements.isEmpty(), finder.getKey() + " ran no SQL");
+            StringBuilder plan = new StringBuilder();
+            for (String sql : statements.keySet()) {
+                plan.append(explain(sql)).append('\n');
+            }
+            assertFalse(plan.toString().toLowerCase().contains("tablescan"), finder.getKey() + " scans a table:\n" + plan);
+            plans.put(finder.getKey(), plan.toString());
+        }
+        // Projects may plan on either index here: H2 keeps the foreign key indexes, MySQL drops them once a wider index covers them
+        assertTrue(plans.get("UserRepository.findById (with roles)").contains("idx_user_roles_user_role"));
+    }
+
+    @Test
+    void refusesASchemaWithoutAMappedIndex() throws Exception {
+        jdbcTemplate.execute("drop index idx_user_roles_user_role");
+        try {
+            IllegalStateException e = assertThrows(IllegalStateException.class, schemaIndexCheck::afterPropertiesSet);
+            assertTrue(e.getMessage().contains("idx_user_roles_user_role on user_roles [user_id, role_id]"));
+        } finally {
+            jdbcTemplate.execute("create index idx_user_roles_user_role on user_roles (user_id, role_id)");
+        }
+        schemaIndexCheck.afterPropertiesSet();
+    }
+
+    @Test
+    void upgradesADatabaseCreatedByTheReleasedVersion() {
+        JdbcTemplate jdbc = upgradedBaseline("upgrade");
+
+        assertEquals("5", jdbc.queryForObject("select max(version) from flyway_schema_history", String.class));
+        assertEquals(columns(jdbcTemplate), columns(jdbc));
+        assertEquals(indexes(jdbcTemplate), indexes(jdbc));
+    }
+
+    @Test
+    void seedsTaskIdsAndOwnersOfExistingRows() {
+        JdbcTemplate jdbc = upgradedBaseline("seed");
+
+        assertEquals(List.of(7L, 7L, 7L, 7L, 8L), jdbc.queryForList("select owner_id from tasks order by id", Long.class));
+        assertEquals(171L, jdbc.queryForObject("select next_val from tasks_seq", Long.class));
+    }
+
+    @Test
+    void backfillsCountersOfExistingProjects() {
+        JdbcTemplate jdbc = upgradedBaseline("counters");
+
+        Map<String, Object> counters = jdbc.queryForMap("select version, total_tasks, completed_tasks, not_started_tasks, "
+                + "in_progress_tasks, status_completed_tasks from projects where id = 3");
+        assertEquals(Map.of("version", 1L, "total_tasks", 4L, "completed_tasks", 1L, "not_started_tasks", 2L,
+                "in_progress_tasks", 1L, "status_completed_tasks", 1L), counters);
+        assertEquals(1L, jdbc.queryForObject("select total_tasks from projects where id = 4", Long.class));
+    }
+
+    // A database as ddl-auto=update left it (the V1 script, no schema history) with rows of that era,
+    // then migrated the way the application starts: baseline at version 1, apply the rest
+    private JdbcTemplate upgradedBaseline(String database) {
+        String url = "jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(jdbc.getDataSource());
+        jdbc.execute("insert into users (id, username, password, refresh_token, enabled) "
+                + "values (7, 'owner', 'pass', 'token', true), (8, 'other', 'pass', null, true)");
+        jdbc.execute("insert into projects (id, user_id, title) values (3, 7, 'project'), (4, 8, 'other')");
+        jdbc.execute("insert into tasks (id, project_id, title, completed, status) values "
+                + "(116, 3, 'a', true, 'COMPLETED'), (117, 3, 'b', false, 'IN_PROGRESS'), (118, 3, 'c', false, 'NOT_STARTED'), "
+                + "(119, 3, 'd', false, 'NOT_STARTED'), (120, 4, 'e', false, 'NOT_STARTED')");
+
+        Flyway.configure().dataSource(url, "sa", "").baselineOnMigrate(true).baselineVersion("1").load().migrate();
+        return jdbc;
+    }
+
+    private static List<String> columns(JdbcTemplate jdbc) {
+        return jdbc.queryForList("select table_name || '.' || column_name || ' ' || data_type || ' ' || is_nullable "
+                + "from information_schema.columns where table_schema = 'public' and table_name <> 'flyway_schema_history' "
+                + "order by table_name, column_name", String.class);
+    }
+
+    private static List<String> indexes(JdbcTemplate jdbc) {
+        // By columns: H2 names the indexes behind constraints in creation order
+        return jdbc.queryForList("select table_name || ' ' || listagg(column_name, ',') within group (order by ordinal_position) "
+                + "from information_schema.index_columns where table_schema = 'public' and table_name <> 'flyway_schema_history' "
+                + "group by table_name, index_name order by 1", String.class);
+    }
+
+    // Every parameter bound to 1; H2 compares it as the column's type
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, 1);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.JwtSetup.JwtSetup.repo;
+
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Role;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.TaskStatus;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.service.ProjectCounterService;
+import com.JwtSetup.JwtSetup.service.TaskCounterDelta;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Each repository call commits on its own, as in the services, so the cache sees committed data only
+// CacheConfig comes with every @DataJpaTest (META-INF/spring/...AutoConfigureDataJpa.imports)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ProjectCounterService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectCounterService projectCounterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterBinder cacheRegionMetrics;
+
+    private Statistics statistics;
+
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        role = roleRepository.save(role);
+        user = new User();
+        user.setUsername("alice");
+        user.setPassword("pass");
+        user.setRoles(Set.of(role));
+        user = userRepository.save(user);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        projectRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedLookupsAreServedWithoutStatements() {
+        assertTrue(userRepository.findByUsername("alice").isPresent());
+        assertTrue(roleRepository.findByName("ROLE_USER").isPresent());
+        long statements = statistics.getPrepareStatementCount();
+
+        User cached = userRepository.findByUsername("alice").orElseThrow();
+        assertTrue(roleRepository.findByName("ROLE_USER").isPresent());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(1, cached.getRoles().size());
+        assertEquals(1, statistics.getQueryRegionStatistics("query.users").getHitCount());
+        assertEquals(1, statistics.getQueryRegionStatistics("query.roles").getHitCount());
+        // Bound by the metrics auto-configuration in the application
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cacheRegionMetrics.bindTo(meterRegistry);
+        assertEquals(0.5, meterRegistry.get("hibernate.cache.hit.ratio").tag("region", "query.users").gauge().value());
+    }
+
+    @Test
+    void writesInvalidateCachedResults() {
+        Project project = new Project();
+        project.setTitle("Cached");
+        project.setUser(user);
+        project = projectRepository.save(project);
+        assertEquals("Cached", projectRepository.findByIdAndUserUsername(project.getId(), "alice").orElseThrow().getTitle());
+
+        project.setTitle("Renamed");
+        projectRepository.save(project);
+        assertEquals("Renamed", projectRepository.findByIdAndUserUsername(project.getId(), "alice").orElseThrow().getTitle());
+
+        User renamed = userRepository.findByUsername("alice").orElseThrow();
+        renamed.setUsername("bob");
+        userRepository.save(renamed);
+        assertTrue(userRepository.findByUsername("alice").isEmpty());
+        assertTrue(projectRepository.findByIdAndUserUsername(project.getId(), "alice").isEmpty());
+        assertTrue(projectRepository.findByIdAndUserUsername(project.getId(), "bob").isPresent());
+
+        // Bulk counter updates bypass the entities, so they evict the whole region
+        projectRepository.findById(project.getId()).orElseThrow();
+        long misses = statistics.getDomainDataRegionStatistics("projects").getMissCount();
+        projectRepository.recomputeCounters(project.getId(), project.getId());
+        projectRepository.findById(project.getId()).orElseThrow();
+        assertEquals(misses + 1, statistics.getDomainDataRegionStatistics("projects").getMissCount());
+    }
+
+    @Test
+    void counterUpdatesKeepTheCacheCurrent() {
+        Project first = newProject("First");
+        Project second = newProject("Second");
+        Task task = new Task();
+        task.setCompleted(false);
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        projectRepository.findById(first.getId()).orElseThrow();
+        projectRepository.findById(second.getId()).orElseThrow();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Project locked = projectRepository.findForUpdateByIdAndUserUsername(first.getId(), "alice").orElseThrow();
+            projectCounterService.apply(locked, new TaskCounterDelta().add(task));
+        });
+        long misses = statistics.getDomainDataRegionStatistics("projects").getMissCount();
+
+        // The updated entry is replaced, the other projects stay cached
+        Project updated = projectRepository.findById(first.getId()).orElseThrow();
+        assertEquals(1, updated.getTotalTasks());
+        assertEquals(1, updated.getInProgressTasks());
+        assertEquals(first.getVersion() + 1, updated.getVersion());
+        assertEquals("Second", projectRepository.findById(second.getId()).orElseThrow().getTitle());
+        assertEquals(misses, statistics.getDomainDataRegionStatistics("projects").getMissCount());
+
+        // A version-only bump (attachment writes) drops just that entry
+        transaction.executeWithoutResult(status -> projectCounterService.bumpVersion(first.getId()));
+        assertEquals(first.getVersion() + 2, projectRepository.findById(first.getId()).orElseThrow().getVersion());
+        assertEquals("Second", projectRepository.findById(second.getId()).orElseThrow().getTitle());
+        assertEquals(misses + 1, statistics.getDomainDataRegionStatistics("projects").getMissCount());
+    }
+
+    private Project newProject(String title) {
+        Project project = new Project();
+        project.setTitle(title);
+        project.setUser(user);
+        return projectRepository.save(project);
+    }
+}
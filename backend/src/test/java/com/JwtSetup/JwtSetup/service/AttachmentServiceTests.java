@@ -0,0 +1,203 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.AttachmentDTO;
+import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.entity.AttachmentBlob;
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.repo.AttachmentBlobRepository;
+import com.JwtSetup.JwtSetup.repo.AttachmentRepository;
+import com.JwtSetup.JwtSetup.repo.ProjectRepository;
+import com.JwtSetup.JwtSetup.repo.TaskRepository;
+import com.JwtSetup.JwtSetup.repo.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({AttachmentService.class, AttachmentStore.class, ProjectCounterService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AttachmentServiceTests {
+
+    private static final byte[] REPORT = "weekly report".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private AttachmentBlobRepository attachmentBlobRepository;
+
+    @Autowired
+    private AttachmentStore attachmentStore;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Project project;
+
+    private Task first;
+
+    private Task second;
+
+    @BeforeEach
+    void setup() {
+        attachmentRepository.deleteAll();
+        attachmentBlobRepository.deleteAll();
+        taskRepository.deleteAll();
+        projectRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = new User();
+        user.setUsername("user");
+        user.setPassword("pass");
+        user = userRepository.save(user);
+        project = new Project();
+        project.setTitle("Project");
+        project.setUser(user);
+        project = projectRepository.save(project);
+        first = taskRepository.save(new Task("first", null, null, project));
+        second = taskRepository.save(new Task("second", null, null, project));
+    }
+
+    private AttachmentDTO upload(Task task, String filename) throws Exception {
+        return attachmentService.upload(project.getId(), task.getId(), filename, new ByteArrayInputStream(REPORT), "user");
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws Exception {
+        AttachmentDTO a = upload(first, "report.pdf");
+        AttachmentDTO b = upload(second, "report-copy.pdf");
+
+        assertEquals(a.getSha256(), b.getSha256());
+        assertEquals(REPORT.length, a.getSize());
+        AttachmentBlob blob = attachmentBlobRepository.findById(a.getSha256()).orElseThrow();
+        assertEquals(2, blob.getRefCount());
+        Path stored = attachmentService.blobPath(a);
+        assertArrayEquals(REPORT, Files.readAllBytes(stored));
+    }
+
+    @Test
+    void sameNameOnTaskIsKeptSideBySide() throws Exception {
+        upload(first, "report.pdf");
+        AttachmentDTO again = upload(first, "report.pdf");
+
+        assertEquals("report (1).pdf", again.getFilename());
+        assertEquals(List.of("report (1).pdf", "report.pdf"),
+                attachmentService.list(project.getId(), first.getId(), "user").stream()
+                        .map(AttachmentDTO::getFilename).collect(Collectors.toList()));
+    }
+
+    @Test
+    void listsMetadataAndCountsPerTask() throws Exception {
+        upload(first, "report.pdf");
+        upload(first, "notes.txt");
+
+        List<AttachmentDTO> listed = attachmentService.list(project.getId(), first.getId(), "user");
+        AttachmentDTO notes = listed.get(0);
+        assertEquals("notes.txt", notes.getFilename());
+        assertEquals("text/plain", notes.getContentType());
+        assertEquals(REPORT.length, notes.getSize());
+        assertEquals("user", notes.getUploadedBy());
+        assertNotNull(notes.getUploadedAt());
+        assertTrue(attachmentService.list(project.getId(), first.getId(), "someone-else").isEmpty());
+
+        TaskDTO withTwo = new TaskDTO();
+        withTwo.setId(first.getId());
+        TaskDTO withNone = new TaskDTO();
+        withNone.setId(second.getId());
+        attachmentService.fillAttachmentCounts(List.of(withTwo, withNone));
+        assertEquals(2, withTwo.getAttachmentCount());
+        assertEquals(0, withNone.getAttachmentCount());
+    }
+
+    @Test
+    void blobIsCollectedWhenLastReferenceGoes() throws Exception {
+        AttachmentDTO a = upload(first, "report.pdf");
+        upload(second, "report.pdf");
+        Path stored = attachmentService.blobPath(a);
+
+        assertTrue(attachmentService.delete(project.getId(), first.getId(), "report.pdf", "user"));
+        assertEquals(0, attachmentService.collectGarbage());
+        assertTrue(Files.exists(stored));
+
+        assertTrue(attachmentService.delete(project.getId(), second.getId(), "report.pdf", "user"));
+        assertEquals(1, attachmentService.collectGarbage());
+        assertFalse(Files.exists(stored));
+        assertFalse(attachmentBlobRepository.existsById(a.getSha256()));
+    }
+
+    @Test
+    void failedUploadLeavesNoFile() throws Exception {
+        byte[] content = ("unique " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        String tooLong = "x".repeat(300) + ".txt";
+
+        assertThrows(DataIntegrityViolationException.class, () -> attachmentService.upload(project.getId(),
+                first.getId(), tooLong, new ByteArrayInputStream(content), "user"));
+
+        String sha256 = HexFormat.of().formatHex(sha256(content));
+        assertFalse(attachmentBlobRepository.existsById(sha256));
+        assertFalse(Files.exists(attachmentStore.blobPath(sha256)));
+    }
+
+    @Test
+    void failedMoveRollsTheUploadBack() throws Exception {
+        byte[] content = ("unplaceable " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        String sha256 = HexFormat.of().formatHex(sha256(content));
+        // A file where the blob's directory should be makes the move fail
+        Path blocker = attachmentStore.blobPath(sha256).getParent();
+        Files.createDirectories(blocker.getParent());
+        Files.createFile(blocker);
+        try {
+            assertThrows(IOException.class, () -> attachmentService.upload(project.getId(), first.getId(),
+                    "notes.txt", new ByteArrayInputStream(content), "user"));
+            assertFalse(attachmentBlobRepository.existsById(sha256));
+            assertTrue(attachmentService.list(project.getId(), first.getId(), "user").isEmpty());
+        } finally {
+            Files.delete(blocker);
+        }
+
+        // Nothing was left behind, so the retry keeps the name
+        AttachmentDTO retried = attachmentService.upload(project.getId(), first.getId(), "notes.txt",
+                new ByteArrayInputStream(content), "user");
+        assertEquals("notes.txt", retried.getFilename());
+        assertArrayEquals(content, Files.readAllBytes(attachmentService.blobPath(retried)));
+    }
+
+    @Test
+    void rejectsForeignTask() {
+        assertThrows(RuntimeException.class, () -> attachmentService.upload(project.getId(), first.getId(),
+                "report.pdf", new ByteArrayInputStream(REPORT), "someone-else"));
+    }
+
+    private static byte[] sha256(byte[] content) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(content);
+    }
+}
@@ -0,0 +1,67 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTests {
+
+    @Test
+    void shedsChecksBeyondPoolAndQueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 2, meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            // one running, two queued
+            List<Future<Boolean>> accepted = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                accepted.add(callers.submit(() -> encoder.matches("secret", "secret")));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (encoder.pending() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThrows(TooManyRequestsException.class, () -> encoder.matches("secret", "other"));
+
+            release.countDown();
+            for (Future<Boolean> result : accepted) {
+                assertTrue(result.get(5, TimeUnit.SECONDS));
+            }
+            assertFalse(encoder.matches("secret", "other"));
+            assertEquals(1, meterRegistry.get("auth.password.rejected").counter().count());
+            assertEquals(4, meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count());
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            encoder.shutdown();
+        }
+    }
+}
@@ -20,6 +20,9 @@ class JwtUtilsTests {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
     private Authentication buildAuth(String username) {
         User u = new User();
         u.setId(1L);
@@ -50,4 +53,37 @@ class JwtUtilsTests {
         assertNotEquals(access, refresh);
         assertTrue(jwtUtils.validateJwtToken(refresh));
     }
+
+    @Test
+    void verifiesEachTokenOnceThenServesFromCache() {
+        String access = jwtUtils.generateAccessToken(buildAuth("cached"));
+        long misses = tokenCache.missCount();
+        long hits = tokenCache.hitCount();
+
+        assertTrue(jwtUtils.validateJwtToken(access));
+        assertEquals("cached", jwtUtils.getUsernameFromToken(access));
+        assertEquals("cached", jwtUtils.getVerifiedClaims(access).getSubject());
+
+        assertEquals(misses + 1, tokenCache.missCount());
+        assertEquals(hits + 2, tokenCache.hitCount());
+    }
+
+    @Test
+    void tamperedTokenIsRejectedAndNotCached() {
+        String access = jwtUtils.generateAccessToken(buildAuth("user"));
+        String tampered = access.substring(0, access.length() - 2) + (access.endsWith("AA") ? "BB" : "AA");
+
+        assertFalse(jwtUtils.validateJwtToken(tampered));
+        assertFalse(jwtUtils.validateJwtToken(tampered));
+        assertTrue(jwtUtils.validateJwtToken(access));
+    }
+
+    @Test
+    void accessTokenCarriesIdAndRoles() {
+        String access = jwtUtils.generateAccessToken(buildAuth("user"));
+        io.jsonwebtoken.Claims claims = jwtUtils.getVerifiedClaims(access);
+
+        assertEquals(1, claims.get(JwtUtils.CLAIM_USER_ID, Number.class).intValue());
+        assertEquals(java.util.List.of("ROLE_USER"), claims.get(JwtUtils.CLAIM_ROLES, java.util.List.class));
+    }
 }
@@ -0,0 +1,73 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTests {
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+
+    // 3 tries at once per user, then one every 20 s; 10 per address, then one every 6 s
+    private final LoginRateLimiter limiter = new LoginRateLimiter(3, 3, 10, 10, 1_000, nanos::get);
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    void throttlesAUsernameAfterItsBurst() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("User@Example.com", "10.0.0." + i);
+        }
+        TooManyRequestsException denied = assertThrows(TooManyRequestsException.class,
+                () -> limiter.acquire("user@example.com ", "10.0.0.9"));
+        assertEquals(20, denied.getRetryAfterSeconds());
+
+        advanceSeconds(20);
+        limiter.acquire("user@example.com", "10.0.0.9");
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("user@example.com", "10.0.0.9"));
+        // other accounts are not affected
+        limiter.acquire("other@example.com", "10.0.0.9");
+    }
+
+    @Test
+    void throttlesAnAddressAcrossUsernames() {
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("user" + i, "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("user10", "10.0.0.1"));
+        limiter.acquire("user10", "10.0.0.2");
+
+        // a full refill later the bucket may have been evicted; either way the whole burst is back
+        advanceSeconds(60);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("someone" + i, "10.0.0.1");
+        }
+    }
+
+    @Test
+    void rejectedTriesDoNotDrainTheOtherBucket() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("victim", "10.0.0.1");
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThrows(TooManyRequestsException.class, () -> limiter.acquire("victim", "10.0.0.1"));
+        }
+        // only the 3 accepted tries came out of the address's 10
+        for (int i = 0; i < 7; i++) {
+            limiter.acquire("user" + i, "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("user7", "10.0.0.1"));
+
+        // and an address that is out of tries does not use up the account's
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("fresh", "10.0.0.1"));
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("fresh", "10.0.0." + (10 + i));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.ProjectEventDTO;
+import com.JwtSetup.JwtSetup.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectEventBroadcasterTests {
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private ProjectEventBroadcaster broadcaster;
+
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setup() {
+        release = null;
+        broadcaster = new ProjectEventBroadcaster(2) {
+            @Override
+            SseEmitter newEmitter(long timeout) {
+                RecordingEmitter emitter = new RecordingEmitter(release);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(broadcaster, "ringSize", 3);
+        ReflectionTestUtils.setField(broadcaster, "subscriberBufferSize", 4);
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 100);
+        ReflectionTestUtils.setField(broadcaster, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(broadcaster, "ringRetentionMs", 60_000L);
+        ReflectionTestUtils.setField(broadcaster, "sendTimeoutMs", 60_000L);
+    }
+
+    @AfterEach
+    void teardown() {
+        broadcaster.shutdown();
+    }
+
+    private ProjectEventDTO publish(long projectId, long taskId) {
+        ProjectEventDTO event = new ProjectEventDTO(ProjectEventDTO.Type.TASK_UPDATED, projectId, taskId, null);
+        broadcaster.onProjectEvent(event);
+        return event;
+    }
+
+    @Test
+    void deliversOnlyToSubscribersOfTheProject() throws Exception {
+        broadcaster.subscribe(1L, null);
+        broadcaster.subscribe(2L, null);
+
+        publish(1L, 10L);
+        publish(1L, 11L);
+        publish(2L, 20L);
+
+        assertEquals(List.of(10L, 11L), emitters.get(0).taskIds(2));
+        assertEquals(List.of(20L), emitters.get(1).taskIds(1));
+    }
+
+    @Test
+    void replaysFromRingOrAsksForReset() throws Exception {
+        ProjectEventDTO first = publish(1L, 10L);
+        publish(1L, 11L);
+        publish(1L, 12L);
+
+        broadcaster.subscribe(1L, first.getId());
+        assertEquals(List.of(11L, 12L), emitters.get(0).taskIds(2));
+
+        // ring holds 3 events, so the first one is gone after two more
+        publish(1L, 13L);
+        publish(1L, 14L);
+        broadcaster.subscribe(1L, first.getId());
+        assertTrue(emitters.get(1).await(1));
+        assertTrue(emitters.get(1).raw().get(0).contains("event:reset"));
+    }
+
+    @Test
+    void dropsSlowSubscriberWithoutBlockingPublisher() throws Exception {
+        release = new CountDownLatch(1);
+        broadcaster.subscribe(1L, null);
+        release = null;
+        broadcaster.subscribe(1L, null);
+        assertEquals(2, broadcaster.getSubscriberCount());
+
+        // the first subscriber never returns from send; the second keeps up
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            publish(1L, i);
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+            assertTrue(emitters.get(1).await(i + 1));
+        }
+
+        assertEquals(20, emitters.get(1).taskIds(20).size());
+        assertEquals(1, broadcaster.getSubscriberCount());
+        emitters.get(0).release.countDown();
+    }
+
+    @Test
+    void evictsStalledSubscribersWithoutStarvingTheOthers() throws Exception {
+        ReflectionTestUtils.setField(broadcaster, "sendTimeoutMs", 50L);
+        release = new CountDownLatch(1);
+        broadcaster.subscribe(1L, null);
+        broadcaster.subscribe(1L, null);
+        publish(1L, 10L);
+        release = null;
+        broadcaster.subscribe(1L, null);
+
+        // both dispatcher threads are stuck in a send that ignores interrupts
+        publish(1L, 11L);
+        Thread.sleep(100);
+        assertTrue(emitters.get(2).raw().isEmpty());
+
+        broadcaster.evictStalledSubscribers();
+        assertEquals(List.of(11L), emitters.get(2).taskIds(1));
+        assertEquals(1, broadcaster.getSubscriberCount());
+        publish(1L, 12L);
+        assertEquals(List.of(11L, 12L), emitters.get(2).taskIds(2));
+
+        // the stand-in threads go once the stalled sends return
+        emitters.get(0).release.countDown();
+        ThreadPoolExecutor dispatcher = (ThreadPoolExecutor) ReflectionTestUtils.getField(broadcaster, "dispatcher");
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((dispatcher.getCorePoolSize() != 2 || dispatcher.getMaximumPoolSize() != 2)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, dispatcher.getCorePoolSize());
+        assertEquals(2, dispatcher.getMaximumPoolSize());
+    }
+
+    @Test
+    void concurrentSubscribesNeverExceedTheLimit() throws Exception {
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 10);
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            long projectId = i % 4;
+            calls.add(callers.submit(() -> {
+                start.await();
+                try {
+                    broadcaster.subscribe(projectId, null);
+                    accepted.incrementAndGet();
+                } catch (ServiceUnavailableException ignored) {
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> call : calls) {
+            call.get(5, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        assertEquals(10, accepted.get());
+        assertEquals(10, broadcaster.getSubscriberCount());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final MappingJackson2HttpMessageConverter json = new MappingJackson2HttpMessageConverter();
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                // Like a blocked socket write, which an interrupt does not end
+                boolean interrupted = false;
+                while (release != null) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                StringBuilder text = new StringBuilder();
+                for (DataWithMediaType part : builder.build()) {
+                    text.append(part.getData() instanceof String s ? s : json.getObjectMapper().writeValueAsString(part.getData()));
+                }
+                sent.add(text.toString());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        boolean await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (sent.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return sent.size() >= count;
+        }
+
+        List<String> raw() {
+            return sent;
+        }
+
+        List<Long> taskIds(int count) throws InterruptedException {
+            assertTrue(await(count));
+            return sent.stream()
+                    .map(text -> text.replaceAll("(?s).*\"taskId\":(\\d+).*", "$1"))
+                    .map(Long::valueOf)
+                    .collect(Collectors.toList());
+        }
+    }
+}
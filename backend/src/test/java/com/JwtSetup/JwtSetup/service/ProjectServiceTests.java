@@ -2,7 +2,6 @@ package com.JwtSetup.JwtSetup.service;
 
 import com.JwtSetup.JwtSetup.dto.ProjectDTO;
 import com.JwtSetup.JwtSetup.entity.Project;
-import com.JwtSetup.JwtSetup.entity.Task;
 import com.JwtSetup.JwtSetup.entity.User;
 import com.JwtSetup.JwtSetup.repo.ProjectRepository;
 import com.JwtSetup.JwtSetup.repo.UserRepository;
@@ -28,6 +27,9 @@ class ProjectServiceTests {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AttachmentService attachmentService;
+
     @InjectMocks
     private ProjectService projectService;
 
@@ -70,18 +72,33 @@ class ProjectServiceTests {
     }
 
     @Test
-    void getProjectProgressCountsTasks() {
-        Task t1 = new Task(); t1.setCompleted(false);
-        Task t2 = new Task(); t2.setCompleted(true);
+    void getProjectProgressReadsCounters() {
         Project p = new Project();
         p.setId(30L);
         p.setUser(user);
-        p.setTasks(java.util.List.of(t1, t2));
+        p.setTotalTasks(2);
+        p.setCompletedTasks(1);
+        p.setNotStartedTasks(1);
+        p.setStatusCompletedTasks(1);
         when(projectRepository.findByIdAndUserUsername(30L, "user")).thenReturn(Optional.of(p));
 
         ProjectDTO dto = projectService.getProjectProgress(30L, "user");
         assertEquals(2, dto.getTotalTasks());
         assertEquals(1, dto.getCompletedTasks());
-        assertTrue(dto.getProgress() >= 0.0);
+        assertEquals(50.0, dto.getProgress());
+        assertEquals(1L, dto.getStatusCounts().get("NOT_STARTED"));
+        assertNull(dto.getTasks());
+    }
+
+    @Test
+    void projectETagFollowsVersionWithoutLoadingProject() {
+        when(projectRepository.findVersionByIdAndUserUsername(40L, "user"))
+                .thenReturn(Optional.of(3L), Optional.of(4L));
+
+        String before = projectService.getProjectETag(40L, "user");
+        String after = projectService.getProjectETag(40L, "user");
+
+        assertNotEquals(before, after);
+        verify(projectRepository, never()).findByIdAndUserUsername(any(), any());
     }
 }
@@ -0,0 +1,136 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.entity.RefreshToken;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.exception.InvalidRefreshTokenException;
+import com.JwtSetup.JwtSetup.repo.RefreshTokenRepository;
+import com.JwtSetup.JwtSetup.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(RefreshTokenService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTests {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        user = new User();
+        user.setUsername("user");
+        user.setPassword("pass");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void storesOnlyDigestAndRotatesOnce() {
+        String family = refreshTokenService.newFamilyId();
+        refreshTokenService.store(user, family, "token-1");
+
+        RefreshToken stored = refreshTokenRepository.findAll().get(0);
+        assertNotEquals("token-1", stored.getTokenHash());
+        assertEquals(64, stored.getTokenHash().length());
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("token-1", u -> "token-2");
+        assertEquals(family, rotation.consumed().getFamilyId());
+        assertEquals("user", rotation.consumed().getUser().getUsername());
+        assertEquals("token-2", rotation.nextToken());
+        assertEquals(family, refreshTokenService.rotate("token-2", u -> "token-3").consumed().getFamilyId());
+    }
+
+    @Test
+    void reuseRevokesWholeFamilyButNotOtherDevices() {
+        String laptop = refreshTokenService.newFamilyId();
+        String phone = refreshTokenService.newFamilyId();
+        refreshTokenService.store(user, laptop, "laptop-1");
+        refreshTokenService.store(user, phone, "phone-1");
+
+        refreshTokenService.rotate("laptop-1", u -> "laptop-2");
+
+        // replaying the rotated token kills the family, including its newest token
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("laptop-1", u -> "laptop-3"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("laptop-2", u -> "laptop-3"));
+
+        assertEquals(phone, refreshTokenService.rotate("phone-1", u -> "phone-2").consumed().getFamilyId());
+    }
+
+    @Test
+    void concurrentRefreshesWithTheSameTokenRotateOnce() throws Exception {
+        String family = refreshTokenService.newFamilyId();
+        refreshTokenService.store(user, family, "shared-1");
+        CountDownLatch locked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The first rotation holds the row lock while the second one starts
+            Future<String> first = executor.submit(() -> refreshTokenService.rotate("shared-1", u -> {
+                locked.countDown();
+                sleep(300);
+                return "shared-2";
+            }).nextToken());
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> refreshTokenService.rotate("shared-1", u -> "shared-3").nextToken());
+
+            assertEquals("shared-2", first.get(5, TimeUnit.SECONDS));
+            ExecutionException reuse = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(InvalidRefreshTokenException.class, reuse.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The loser saw the rotation and revoked the family; its token was never stored
+        assertEquals(2, refreshTokenRepository.count());
+        assertTrue(refreshTokenRepository.findAll().stream().allMatch(RefreshToken::isRevoked));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void purgesExpiredTokensInBatches() {
+        for (int i = 0; i < 5; i++) {
+            refreshTokenService.store(user, refreshTokenService.newFamilyId(), "expired-" + i);
+        }
+        refreshTokenService.store(user, refreshTokenService.newFamilyId(), "live");
+        refreshTokenRepository.findAll().stream()
+                .filter(t -> !t.getTokenHash().equals(refreshTokenService.digest("live")))
+                .forEach(t -> {
+                    t.setExpiresAt(Instant.now().minusSeconds(60));
+                    refreshTokenRepository.save(t);
+                });
+
+        assertEquals(5, refreshTokenService.purgeExpired());
+        assertEquals(1, refreshTokenRepository.count());
+    }
+}
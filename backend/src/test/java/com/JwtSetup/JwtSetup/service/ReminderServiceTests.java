@@ -0,0 +1,197 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.TaskReminder;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.repo.ProjectRepository;
+import com.JwtSetup.JwtSetup.repo.TaskReminderRepository;
+import com.JwtSetup.JwtSetup.repo.TaskRepository;
+import com.JwtSetup.JwtSetup.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: claims run in their own transactions, concurrently in one test
+@DataJpaTest
+@Import({ReminderService.class, OutboxReminderSink.class})
+@TestPropertySource(properties = {"reminders.batchSize=7", "reminders.windowMs=3600000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReminderServiceTests {
+
+    @Autowired
+    private ReminderService reminderService;
+
+    @Autowired
+    private TaskReminderRepository taskReminderRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Project project;
+
+    // Due the day after tomorrow: its reminder (tomorrow 09:00) is still ahead of the real clock
+    private final LocalDate dueDate = LocalDate.now().plusDays(2);
+
+    @BeforeEach
+    void setup() {
+        taskReminderRepository.deleteAll();
+        taskRepository.deleteAll();
+        projectRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = new User();
+        user.setUsername("user");
+        user.setPassword("pass");
+        user = userRepository.save(user);
+        project = new Project();
+        project.setTitle("Project");
+        project.setUser(user);
+        project = projectRepository.save(project);
+    }
+
+    private List<Task> tasksDue(LocalDate date, int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("task " + i, null, date, project));
+        }
+        return taskRepository.saveAll(tasks);
+    }
+
+    private List<Long> remindedTaskIds() {
+        return taskReminderRepository.findAll().stream()
+                .map(TaskReminder::getTaskId).sorted().collect(Collectors.toList());
+    }
+
+    private List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    void parksUpcomingRemindersUntilTheirTime() {
+        List<Task> open = tasksDue(dueDate, 20);
+        Task done = tasksDue(dueDate, 1).get(0);
+        done.setCompleted(true);
+        taskRepository.save(done);
+        tasksDue(dueDate.plusDays(1), 3);
+        Instant remindAt = reminderService.remindAt(dueDate);
+
+        reminderService.scan(remindAt.minusSeconds(600));
+        // 20 open tasks in batches of 7; the next day is beyond the window
+        assertEquals(3, reminderService.pendingBatches());
+        assertTrue(remindedTaskIds().isEmpty());
+
+        reminderService.tick(remindAt.minusSeconds(5).toEpochMilli());
+        assertTrue(remindedTaskIds().isEmpty());
+        reminderService.tick(remindAt.plusSeconds(1).toEpochMilli());
+        assertEquals(0, reminderService.pendingBatches());
+        assertEquals(ids(open), remindedTaskIds());
+        assertEquals(project.getUser().getId(), taskReminderRepository.findAll().get(0).getOwnerId());
+    }
+
+    @Test
+    void remindsOncePerDueDateAcrossOverlappingRuns() throws Exception {
+        List<Task> tasks = tasksDue(dueDate, 50);
+        Instant late = reminderService.remindAt(dueDate).plusSeconds(60);
+
+        // Two instances catching up on the same due date at once
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Callable<Integer> catchUp = () -> reminderService.sendAll(dueDate);
+            Future<Integer> first = pool.submit(catchUp);
+            Future<Integer> second = pool.submit(catchUp);
+            assertEquals(50, first.get() + second.get());
+        } finally {
+            pool.shutdown();
+        }
+        reminderService.scan(late);
+        assertEquals(ids(tasks), remindedTaskIds());
+
+        // Moving the due date makes the task due a reminder for the new date
+        Task moved = taskRepository.findById(tasks.get(0).getId()).orElseThrow();
+        moved.setDueDate(dueDate.plusDays(1));
+        taskRepository.save(moved);
+        reminderService.scan(reminderService.remindAt(dueDate.plusDays(1)).plusSeconds(60));
+
+        assertEquals(List.of(dueDate, dueDate.plusDays(1)), taskReminderRepository.findByTaskIdOrderByDueDate(moved.getId())
+                .stream().map(TaskReminder::getDueDate).collect(Collectors.toList()));
+        assertEquals(51, taskReminderRepository.count());
+    }
+
+    @Test
+    void movingTheDueDateBackDoesNotQueueItTwice() {
+        LocalDate later = dueDate.plusDays(1);
+        Task task = tasksDue(dueDate, 1).get(0);
+        assertEquals(1, reminderService.sendAll(dueDate));
+        moveTo(task.getId(), later);
+        assertEquals(1, reminderService.sendAll(later));
+
+        // Back on the first date, in one batch with a task that was never reminded
+        moveTo(task.getId(), dueDate);
+        Task other = tasksDue(dueDate, 1).get(0);
+        assertEquals(2, reminderService.sendAll(dueDate));
+
+        assertEquals(List.of(dueDate, later), taskReminderRepository.findByTaskIdOrderByDueDate(task.getId())
+                .stream().map(TaskReminder::getDueDate).collect(Collectors.toList()));
+        assertEquals(1, taskReminderRepository.findByTaskIdOrderByDueDate(other.getId()).size());
+        assertEquals(dueDate, taskRepository.findById(task.getId()).orElseThrow().getRemindedFor());
+    }
+
+    // As TaskService edits: load and change the current row
+    private void moveTo(Long taskId, LocalDate date) {
+        Task task = taskRepository.findById(taskId).orElseThrow();
+        task.setDueDate(date);
+        taskRepository.save(task);
+    }
+
+    @Test
+    void editOverlappingAReminderKeepsItsMark() throws Exception {
+        Long id = tasksDue(dueDate, 1).get(0).getId();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Task task = taskRepository.findById(id).orElseThrow();
+                try {
+                    assertEquals(1, pool.submit(() -> reminderService.sendAll(dueDate)).get());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                task.setTitle("edited");
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        Task saved = taskRepository.findById(id).orElseThrow();
+        assertEquals("edited", saved.getTitle());
+        assertEquals(dueDate, saved.getRemindedFor());
+        assertEquals(0, reminderService.sendAll(dueDate));
+    }
+}
@@ -0,0 +1,113 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.BenchmarkResults;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Search latency over 1M indexed tasks, for a caller who owns every project (the widest filter).
+ * Queries mix whole words, short prefixes, one-typo words and two-word queries.
+ * Run with {@code mvn test -Pbenchmark}; results go to {@code target/benchmarks/search-benchmark.json}.
+ */
+@Tag("benchmark")
+class SearchIndexBenchmarkTests {
+
+    private static final int TASKS = 1_000_000;
+    private static final int PROJECTS = 2_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int WARMUP = 500;
+    private static final int QUERIES = 2_000;
+
+    private static final String[] SYLLABLES = {"ba", "ko", "ri", "mu", "te", "sa", "lo", "ni", "ve", "du",
+            "pa", "zi", "go", "fe", "ha", "mo", "ku", "ra", "si", "to"};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void p99OverOneMillionTasks() throws Exception {
+        Path dir = Paths.get("target", "search-benchmark");
+        FileSystemUtils.deleteRecursively(dir);
+        String[] words = vocabulary();
+        SearchIndex index = new SearchIndex(dir.toString());
+        try {
+            long start = System.nanoTime();
+            for (long id = 1; id <= TASKS; id++) {
+                index.upsertTask(id, id % PROJECTS, sentence(words, 4), sentence(words, 12), words[random.nextInt(50)]);
+            }
+            index.commit();
+            // Closing waits for background merges; queries run on the settled index
+            index.close();
+            long indexMs = (System.nanoTime() - start) / 1_000_000;
+            index = new SearchIndex(dir.toString());
+
+            List<Long> projectIds = LongStream.range(0, PROJECTS).boxed().collect(Collectors.toList());
+            int hits = 0;
+            for (int i = 0; i < WARMUP; i++) {
+                index.search(query(words), projectIds, 20);
+            }
+            long[] nanos = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                String query = query(words);
+                long queryStart = System.nanoTime();
+                hits += index.search(query, projectIds, 20).size();
+                nanos[i] = System.nanoTime() - queryStart;
+            }
+            Arrays.sort(nanos);
+            new BenchmarkResults("search-benchmark").add("tasks", TASKS, "index_ms", indexMs,
+                    "p50_ms", nanos[QUERIES / 2] / 1e6, "p99_ms", nanos[QUERIES * 99 / 100] / 1e6,
+                    "max_ms", nanos[QUERIES - 1] / 1e6);
+            assertTrue(hits > 0);
+        } finally {
+            index.close();
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    private String[] vocabulary() {
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 2 + random.nextInt(3); s > 0; s--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private String sentence(String[] words, int length) {
+        List<String> picked = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            picked.add(words[random.nextInt(words.length)]);
+        }
+        return String.join(" ", picked);
+    }
+
+    private String query(String[] words) {
+        String word = words[random.nextInt(words.length)];
+        switch (random.nextInt(4)) {
+            case 0:
+                return word.substring(0, 3);
+            case 1:
+                // one substituted character after the first
+                int at = 1 + random.nextInt(word.length() - 1);
+                return word.substring(0, at) + 'x' + word.substring(at + 1);
+            case 2:
+                return word + " " + words[random.nextInt(words.length)];
+            default:
+                return word;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.BulkTaskRequestDTO;
+import com.JwtSetup.JwtSetup.dto.SearchResultDTO;
+import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.repo.AttachmentBlobRepository;
+import com.JwtSetup.JwtSetup.repo.AttachmentRepository;
+import com.JwtSetup.JwtSetup.repo.ProjectRepository;
+import com.JwtSetup.JwtSetup.repo.TaskRepository;
+import com.JwtSetup.JwtSetup.repo.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: the index follows committed writes only
+@DataJpaTest
+@Import({SearchService.class, SearchIndex.class, TaskService.class, ProjectCounterService.class,
+        AttachmentService.class, AttachmentStore.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SearchServiceTests {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private AttachmentBlobRepository attachmentBlobRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Project project;
+
+    private Project foreignProject;
+
+    @BeforeEach
+    void setup() {
+        attachmentRepository.deleteAll();
+        attachmentBlobRepository.deleteAll();
+        taskRepository.deleteAll();
+        projectRepository.deleteAll();
+        userRepository.deleteAll();
+        project = newProject("user");
+        foreignProject = newProject("someone-else");
+    }
+
+    private Project newProject(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("pass");
+        user = userRepository.save(user);
+        Project p = new Project();
+        p.setTitle("Project");
+        p.setUser(user);
+        return projectRepository.save(p);
+    }
+
+    private TaskDTO create(Project target, String username, String title, String description, String section) {
+        TaskDTO dto = new TaskDTO();
+        dto.setTitle(title);
+        dto.setDescription(description);
+        dto.setSection(section);
+        return taskService.createTask(target.getId(), dto, username);
+    }
+
+    private List<SearchResultDTO> search(String query) throws Exception {
+        searchService.flush().get(5, TimeUnit.SECONDS);
+        return searchService.search(query, 20, "user");
+    }
+
+    private List<Long> taskIds(List<SearchResultDTO> results) {
+        return results.stream().map(SearchResultDTO::getTaskId).collect(Collectors.toList());
+    }
+
+    @Test
+    void matchesPrefixesTyposAndAccents() throws Exception {
+        TaskDTO budget = create(project, "user", "Quarterly budget review", "Slides for the réunion", "finance");
+        TaskDTO lunch = create(project, "user", "Team lunch", null, "social");
+
+        assertEquals(List.of(budget.getId()), taskIds(search("budg")));
+        assertEquals(List.of(budget.getId()), taskIds(search("quartrly")));
+        assertEquals(List.of(budget.getId()), taskIds(search("Reunion")));
+        assertEquals(List.of(budget.getId()), taskIds(search("finance review")));
+        assertEquals(List.of(lunch.getId()), taskIds(search("lunch")));
+        // every term has to match
+        assertTrue(search("lunch budget").isEmpty());
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() throws Exception {
+        TaskDTO task = create(project, "user", "Draft contract", null, null);
+        TaskDTO rename = new TaskDTO();
+        rename.setTitle("Signed agreement");
+        taskService.updateTask(project.getId(), task.getId(), rename, "user");
+
+        assertTrue(search("contract").isEmpty());
+        assertEquals(List.of(task.getId()), taskIds(search("agreement")));
+
+        taskService.deleteTask(project.getId(), task.getId(), "user");
+        assertTrue(search("agreement").isEmpty());
+    }
+
+    @Test
+    void indexesBulkChanges() throws Exception {
+        BulkTaskRequestDTO request = new BulkTaskRequestDTO();
+        for (int i = 0; i < 30; i++) {
+            TaskDTO dto = new TaskDTO();
+            dto.setTitle("inventory item " + i);
+            request.getCreate().add(dto);
+        }
+        taskService.bulkTasks(project.getId(), request, "user");
+
+        assertEquals(20, search("inventory").size());
+    }
+
+    @Test
+    void searchesTextAttachmentContents() throws Exception {
+        TaskDTO task = create(project, "user", "Flight planning", null, null);
+        attachmentService.upload(project.getId(), task.getId(), "notes.txt",
+                new ByteArrayInputStream("zeppelin manifest".getBytes(StandardCharsets.UTF_8)), "user");
+        attachmentService.upload(project.getId(), task.getId(), "scan.pdf",
+                new ByteArrayInputStream("zeppelin blueprint".getBytes(StandardCharsets.UTF_8)), "user");
+
+        List<SearchResultDTO> results = search("zeppelin");
+        assertEquals(1, results.size());
+        SearchResultDTO hit = results.get(0);
+        assertEquals(SearchResultDTO.Type.ATTACHMENT, hit.getType());
+        assertEquals("notes.txt", hit.getFilename());
+        assertEquals("Flight planning", hit.getTitle());
+
+        attachmentService.delete(project.getId(), task.getId(), "notes.txt", "user");
+        assertTrue(search("zeppelin").isEmpty());
+    }
+
+    @Test
+    void onlySearchesTheCallersProjects() throws Exception {
+        create(foreignProject, "someone-else", "Secret roadmap", null, null);
+        TaskDTO own = create(project, "user", "Public roadmap", null, null);
+
+        assertEquals(List.of(own.getId()), taskIds(search("roadmap")));
+    }
+
+    @Test
+    void rebuildPicksUpRowsWrittenWithoutEvents() throws Exception {
+        Task task = taskRepository.save(new Task("Imported backlog", null, null, project));
+        assertTrue(search("backlog").isEmpty());
+
+        searchService.requestRebuild();
+        assertEquals(List.of(task.getId()), taskIds(search("backlog")));
+    }
+}
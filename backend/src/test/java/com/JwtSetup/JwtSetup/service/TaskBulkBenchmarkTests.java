@@ -0,0 +1,69 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.BenchmarkResults;
+import com.JwtSetup.JwtSetup.dto.BulkTaskRequestDTO;
+import com.JwtSetup.JwtSetup.dto.ProjectDTO;
+import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.repo.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 10k individual task creations against one bulk call of the same size.
+ * Run with {@code mvn test -Pbenchmark}; results go to {@code target/benchmarks/bulk-benchmark.json}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+class TaskBulkBenchmarkTests {
+
+    private static final int TASKS = 10_000;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void singleCallsVersusOneBulkCall() {
+        User user = new User();
+        user.setUsername("bench");
+        user.setPassword("pass");
+        userRepository.save(user);
+        Long singleProject = projectService.createProject(new ProjectDTO(null, "single", null), "bench").getId();
+        Long bulkProject = projectService.createProject(new ProjectDTO(null, "bulk", null), "bench").getId();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            taskService.createTask(singleProject, task(i), "bench");
+        }
+        long singleMs = (System.nanoTime() - start) / 1_000_000;
+
+        BulkTaskRequestDTO request = new BulkTaskRequestDTO();
+        for (int i = 0; i < TASKS; i++) {
+            request.getCreate().add(task(i));
+        }
+        start = System.nanoTime();
+        int created = taskService.bulkTasks(bulkProject, request, "bench").getCreated().size();
+        long bulkMs = (System.nanoTime() - start) / 1_000_000;
+
+        new BenchmarkResults("bulk-benchmark").add("tasks", TASKS, "single_ms", singleMs, "bulk_ms", bulkMs,
+                "speedup", Math.round(10.0 * singleMs / Math.max(1, bulkMs)) / 10.0);
+        assertEquals(TASKS, created);
+    }
+
+    private static TaskDTO task(int i) {
+        TaskDTO dto = new TaskDTO();
+        dto.setTitle("task " + i);
+        dto.setSection("todo");
+        return dto;
+    }
+}
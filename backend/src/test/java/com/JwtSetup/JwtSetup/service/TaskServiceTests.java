@@ -0,0 +1,387 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.BulkTaskRequestDTO;
+import com.JwtSetup.JwtSetup.dto.BulkTaskResultDTO;
+import com.JwtSetup.JwtSetup.dto.MyTasksFilterDTO;
+import com.JwtSetup.JwtSetup.dto.ProjectEventDTO;
+import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.dto.TaskFilterDTO;
+import com.JwtSetup.JwtSetup.dto.TaskPageDTO;
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Task;
+import com.JwtSetup.JwtSetup.entity.TaskStatus;
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.exception.BadRequestException;
+import com.JwtSetup.JwtSetup.repo.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({TaskService.class, ProjectCounterService.class, AttachmentService.class, AttachmentStore.class,
+        SimpleMeterRegistry.class})
+@RecordApplicationEvents
+class TaskServiceTests {
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private Project project;
+
+    @BeforeEach
+    void setup() {
+        User user = new User();
+        user.setUsername("user");
+        user.setPassword("pass");
+        em.persist(user);
+        project = new Project();
+        project.setTitle("Project");
+        project.setUser(user);
+        em.persist(project);
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < 25; i++) {
+            Task t = new Task("task " + i, null, start.plusDays(i % 5), project);
+            t.setSection(i % 2 == 0 ? "todo" : "doing");
+            if (i % 3 == 0) {
+                t.setStatus(TaskStatus.COMPLETED);
+            }
+            em.persist(t);
+        }
+        em.flush();
+        projectRepository.recomputeCounters(project.getId(), project.getId());
+        em.clear();
+    }
+
+    private List<TaskDTO> readAll(TaskFilterDTO filter) {
+        List<TaskDTO> all = new ArrayList<>();
+        do {
+            TaskPageDTO page = taskService.getProjectTasks(project.getId(), filter, "user");
+            assertTrue(page.getItems().size() <= filter.effectiveLimit());
+            all.addAll(page.getItems());
+            filter.setCursor(page.getNextCursor());
+        } while (filter.getCursor() != null);
+        return all;
+    }
+
+    @Test
+    void pagesThroughAllTasksById() {
+        TaskFilterDTO filter = new TaskFilterDTO();
+        filter.setLimit(10);
+
+        List<TaskDTO> all = readAll(filter);
+
+        assertEquals(25, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getId() < all.get(i).getId());
+        }
+    }
+
+    @Test
+    void pagesByDueDateWithFilters() {
+        TaskFilterDTO filter = new TaskFilterDTO();
+        filter.setSort("dueDate");
+        filter.setSection("todo");
+        filter.setCompleted(false);
+        filter.setDueFrom(LocalDate.of(2026, 1, 2));
+        filter.setLimit(2);
+
+        List<TaskDTO> all = readAll(filter);
+
+        // even indexes, not multiples of 3, due on or after Jan 2: 2, 4, 8, 10, 14, 16, 20, 22 minus i % 5 == 0 (10, 20)
+        assertEquals(6, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            TaskDTO prev = all.get(i - 1);
+            TaskDTO next = all.get(i);
+            assertFalse(prev.getDueDate().isAfter(next.getDueDate()));
+            assertEquals("todo", next.getSection());
+            assertFalse(next.getCompleted());
+        }
+    }
+
+    private Project otherProject(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("pass");
+        em.persist(user);
+        Project other = new Project();
+        other.setTitle(username);
+        other.setUser(user);
+        return em.persist(other);
+    }
+
+    private List<TaskDTO> readAllMine(MyTasksFilterDTO filter) {
+        List<TaskDTO> all = new ArrayList<>();
+        do {
+            TaskPageDTO page = taskService.getMyTasks(filter, "user");
+            all.addAll(page.getItems());
+            filter.setCursor(page.getNextCursor());
+        } while (filter.getCursor() != null);
+        return all;
+    }
+
+    @Test
+    void listsOwnTasksAcrossProjectsByDueDateUndatedLast() {
+        Project second = new Project();
+        second.setTitle("Second");
+        second.setUser(em.find(Project.class, project.getId()).getUser());
+        em.persist(second);
+        Task undated = em.persist(new Task("someday", null, null, second));
+        Task early = em.persist(new Task("early", null, LocalDate.of(2025, 12, 31), second));
+        em.persist(new Task("foreign", null, LocalDate.of(2025, 12, 30), otherProject("someone-else")));
+        em.flush();
+        em.clear();
+
+        MyTasksFilterDTO filter = new MyTasksFilterDTO();
+        filter.setLimit(4);
+        List<TaskDTO> all = readAllMine(filter);
+
+        assertEquals(27, all.size());
+        assertEquals(early.getId(), all.get(0).getId());
+        assertEquals(second.getId(), all.get(0).getProjectId());
+        assertEquals(undated.getId(), all.get(26).getId());
+        for (int i = 1; i < 26; i++) {
+            assertFalse(all.get(i - 1).getDueDate().isAfter(all.get(i).getDueDate()));
+        }
+    }
+
+    @Test
+    void filtersOwnTasksByDueWindowAndStatus() {
+        em.persist(new Task("someday", null, null, em.find(Project.class, project.getId())));
+        em.flush();
+        em.clear();
+
+        // Sat Jan 3 2026: Jan 1-2 are overdue, the week runs through Sunday Jan 4
+        MyTasksFilterDTO filter = new MyTasksFilterDTO();
+        filter.setToday(LocalDate.of(2026, 1, 3));
+        filter.setDue("overdue");
+        assertEquals(10, readAllMine(filter).size());
+        filter.setDue("today");
+        assertEquals(5, readAllMine(filter).size());
+        filter.setDue("week");
+        assertEquals(10, readAllMine(filter).size());
+
+        filter.setStatus(List.of("COMPLETED"));
+        List<TaskDTO> completed = readAllMine(filter);
+        // multiples of 3 due Jan 3 or 4 (i % 5 of 2 or 3): 3, 12, 18
+        assertEquals(3, completed.size());
+        assertTrue(completed.stream().allMatch(t -> "COMPLETED".equals(t.getStatus())));
+
+        filter.setDue("later");
+        assertThrows(BadRequestException.class, () -> taskService.getMyTasks(filter, "user"));
+    }
+
+    @Test
+    void searchesOwnTasksAcrossAllPages() {
+        em.persist(new Task("Quarterly 50%_report", "due to finance", null, em.find(Project.class, project.getId())));
+        Project launch = new Project();
+        launch.setTitle("Launch");
+        launch.setUser(em.find(Project.class, project.getId()).getUser());
+        em.persist(launch);
+        em.persist(new Task("ship", null, LocalDate.of(2026, 2, 1), launch));
+        em.flush();
+        em.clear();
+
+        MyTasksFilterDTO filter = new MyTasksFilterDTO();
+        filter.setLimit(2);
+        filter.setQ("TASK 2");
+        // task 2 and task 20-24, wherever they fall in due-date order
+        assertEquals(6, readAllMine(filter).size());
+        filter.setQ("FINANCE");
+        assertEquals(List.of("Quarterly 50%_report"), titles(readAllMine(filter)));
+        filter.setQ("launch");
+        assertEquals(List.of("ship"), titles(readAllMine(filter)));
+        // wildcards are matched literally
+        filter.setQ("%_");
+        assertEquals(List.of("Quarterly 50%_report"), titles(readAllMine(filter)));
+        filter.setQ("  ");
+        assertEquals(27, readAllMine(filter).size());
+    }
+
+    private static List<String> titles(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getTitle).collect(Collectors.toList());
+    }
+
+    @Test
+    void rejectsMalformedOwnTaskFilters() {
+        MyTasksFilterDTO badStatus = new MyTasksFilterDTO();
+        badStatus.setStatus(List.of("COMPLETED", "DONE"));
+        assertThrows(BadRequestException.class, () -> taskService.getMyTasks(badStatus, "user"));
+
+        for (String cursor : new String[]{"12", "2026-13-01_5", "2026-01-01_x", "none_x"}) {
+            MyTasksFilterDTO badCursor = new MyTasksFilterDTO();
+            badCursor.setCursor(cursor);
+            assertThrows(BadRequestException.class, () -> taskService.getMyTasks(badCursor, "user"), cursor);
+        }
+    }
+
+    @Test
+    void rejectsMalformedProjectTaskFilters() {
+        TaskFilterDTO badStatus = new TaskFilterDTO();
+        badStatus.setStatus("DONE");
+        assertThrows(BadRequestException.class, () -> taskService.getProjectTasks(project.getId(), badStatus, "user"));
+
+        TaskFilterDTO badId = new TaskFilterDTO();
+        badId.setCursor("abc");
+        assertThrows(BadRequestException.class, () -> taskService.getProjectTasks(project.getId(), badId, "user"));
+
+        for (String cursor : new String[]{"2026-01-01", "2026-13-01_5", "2026-01-01_x"}) {
+            TaskFilterDTO badDated = new TaskFilterDTO();
+            badDated.setSort("dueDate");
+            badDated.setCursor(cursor);
+            assertThrows(BadRequestException.class, () -> taskService.getProjectTasks(project.getId(), badDated, "user"),
+                    cursor);
+        }
+    }
+
+    @Test
+    void rejectsForeignProject() {
+        assertThrows(RuntimeException.class,
+                () -> taskService.getProjectTasks(project.getId(), new TaskFilterDTO(), "someone-else"));
+    }
+
+    @Test
+    void bulkAppliesCreatesUpdatesAndDeletesTogether() {
+        List<TaskDTO> existing = readAll(new TaskFilterDTO());
+        BulkTaskRequestDTO request = new BulkTaskRequestDTO();
+        for (int i = 0; i < 120; i++) {
+            TaskDTO create = new TaskDTO();
+            create.setTitle("bulk " + i);
+            request.getCreate().add(create);
+        }
+        TaskDTO statusChange = new TaskDTO();
+        statusChange.setId(existing.get(1).getId());
+        statusChange.setStatus("IN_PROGRESS");
+        request.getUpdate().add(statusChange);
+        request.getDelete().add(existing.get(2).getId());
+
+        BulkTaskResultDTO result = taskService.bulkTasks(project.getId(), request, "user");
+
+        assertEquals(120, result.getCreated().size());
+        assertTrue(result.getCreated().stream().allMatch(t -> t.getId() != null));
+        assertEquals("IN_PROGRESS", result.getUpdated().get(0).getStatus());
+        assertEquals(1, result.getDeleted());
+        em.flush();
+        em.clear();
+        assertEquals(25 + 120 - 1, readAll(new TaskFilterDTO()).size());
+
+        // 25 seeded tasks: 9 completed (multiples of 3); task 1 moves to IN_PROGRESS, task 2 is deleted
+        Project reloaded = em.find(Project.class, project.getId());
+        assertEquals(144, reloaded.getTotalTasks());
+        assertEquals(9, reloaded.getCompletedTasks());
+        assertEquals(1, reloaded.getInProgressTasks());
+        assertEquals(144 - 9 - 1, reloaded.getNotStartedTasks());
+    }
+
+    @Test
+    void singleWritesKeepCountersInStep() {
+        TaskDTO create = new TaskDTO();
+        create.setTitle("new");
+        TaskDTO created = taskService.createTask(project.getId(), create, "user");
+        taskService.toggleTaskComplete(project.getId(), created.getId(), "user");
+        taskService.updateTaskStatus(project.getId(), created.getId(), "user");
+        em.flush();
+        em.clear();
+
+        Project reloaded = em.find(Project.class, project.getId());
+        assertEquals(26, reloaded.getTotalTasks());
+        // toggled to COMPLETED, then cycled back to NOT_STARTED
+        assertEquals(9, reloaded.getCompletedTasks());
+        assertEquals(9, reloaded.getStatusCompletedTasks());
+
+        taskService.deleteTask(project.getId(), created.getId(), "user");
+        em.flush();
+        em.clear();
+        assertEquals(25, em.find(Project.class, project.getId()).getTotalTasks());
+    }
+
+    @Test
+    void bulkPatchesOfDifferentFieldsShareOneBatch() {
+        List<Long> ids = taskService.getProjectTasks(project.getId(), new TaskFilterDTO(), "user").getItems().stream()
+                .map(TaskDTO::getId).limit(6).collect(Collectors.toList());
+        BulkTaskRequestDTO request = new BulkTaskRequestDTO();
+        for (int i = 0; i < ids.size(); i++) {
+            TaskDTO update = new TaskDTO();
+            update.setId(ids.get(i));
+            switch (i % 3) {
+                case 0 -> update.setTitle("renamed " + i);
+                case 1 -> update.setSection("later");
+                default -> update.setDueDate(LocalDate.of(2026, 3, 1));
+            }
+            request.getUpdate().add(update);
+        }
+        taskService.bulkTasks(project.getId(), request, "user");
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        em.flush();
+
+        // Full-row updates share one statement (counters are unchanged); per-field SQL would break the batch
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void bulkRejectsTasksOfAnotherProject() {
+        BulkTaskRequestDTO request = new BulkTaskRequestDTO();
+        request.getDelete().add(Long.MAX_VALUE);
+
+        assertThrows(RuntimeException.class, () -> taskService.bulkTasks(project.getId(), request, "user"));
+    }
+
+    @Test
+    void bulkRejectsTasksBothUpdatedAndDeleted() {
+        TaskDTO create = new TaskDTO();
+        create.setTitle("twice");
+        TaskDTO created = taskService.createTask(project.getId(), create, "user");
+        BulkTaskRequestDTO request = new BulkTaskRequestDTO();
+        TaskDTO update = new TaskDTO();
+        update.setId(created.getId());
+        update.setTitle("renamed");
+        request.getUpdate().add(update);
+        request.getDelete().add(created.getId());
+
+        BadRequestException error = assertThrows(BadRequestException.class,
+                () -> taskService.bulkTasks(project.getId(), request, "user"));
+        assertEquals("Tasks both updated and deleted: [" + created.getId() + "]", error.getMessage());
+    }
+
+    @Test
+    void writesPublishChangeEvents() {
+        TaskDTO create = new TaskDTO();
+        create.setTitle("new");
+        TaskDTO created = taskService.createTask(project.getId(), create, "user");
+        taskService.updateTaskStatus(project.getId(), created.getId(), "user");
+        taskService.deleteTask(project.getId(), created.getId(), "user");
+
+        List<ProjectEventDTO> published = events.stream(ProjectEventDTO.class).collect(Collectors.toList());
+        assertEquals(List.of(ProjectEventDTO.Type.TASK_CREATED, ProjectEventDTO.Type.TASK_STATUS_CHANGED,
+                        ProjectEventDTO.Type.TASK_DELETED),
+                published.stream().map(ProjectEventDTO::getType).collect(Collectors.toList()));
+        assertTrue(published.stream().allMatch(e -> project.getId().equals(e.getProjectId())
+                && created.getId().equals(e.getTaskId())));
+        assertEquals("IN_PROGRESS", published.get(1).getTask().getStatus());
+    }
+}
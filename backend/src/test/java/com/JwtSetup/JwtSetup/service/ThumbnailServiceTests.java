@@ -0,0 +1,90 @@
+package com.JwtSetup.JwtSetup.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThumbnailServiceTests {
+
+    @TempDir
+    Path root;
+
+    private AttachmentStore attachmentStore;
+
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setup() {
+        attachmentStore = new AttachmentStore(root.toString());
+        thumbnailService = new ThumbnailService(attachmentStore, 1, 4);
+        ReflectionTestUtils.setField(thumbnailService, "size", 256);
+        ReflectionTestUtils.setField(thumbnailService, "maxSourceBytes", 10_000_000L);
+        ReflectionTestUtils.setField(thumbnailService, "waitMs", 10_000L);
+    }
+
+    @AfterEach
+    void teardown() {
+        thumbnailService.shutdown();
+    }
+
+    private Path blob(String sha256) throws Exception {
+        Path path = attachmentStore.blobPath(sha256);
+        Files.createDirectories(path.getParent());
+        return path;
+    }
+
+    @Test
+    void downscalesImagesIntoVariantNextToBlob() throws Exception {
+        String sha256 = "a".repeat(64);
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), "png", blob(sha256).toFile());
+
+        Path thumbnail = thumbnailService.getThumbnail(sha256, "image/png", Files.size(blob(sha256))).orElseThrow();
+
+        assertEquals(attachmentStore.variantPath(sha256, ThumbnailService.VARIANT), thumbnail);
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertEquals(256, image.getWidth());
+        assertEquals(128, image.getHeight());
+        assertTrue(Files.size(thumbnail) < Files.size(blob(sha256)));
+
+        attachmentStore.delete(sha256);
+        assertFalse(Files.exists(thumbnail));
+    }
+
+    @Test
+    void rendersFirstPdfPage() throws Exception {
+        String sha256 = "b".repeat(64);
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(blob(sha256).toFile());
+        }
+
+        Path thumbnail = thumbnailService.getThumbnail(sha256, "application/pdf", Files.size(blob(sha256))).orElseThrow();
+
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertEquals(256, image.getHeight());
+        assertTrue(image.getWidth() < image.getHeight());
+    }
+
+    @Test
+    void hasNoPreviewForUnsupportedOrBrokenContent() throws Exception {
+        String sha256 = "c".repeat(64);
+        Files.writeString(blob(sha256), "not an image");
+
+        assertTrue(thumbnailService.getThumbnail(sha256, "text/plain", 12).isEmpty());
+        assertTrue(thumbnailService.getThumbnail(sha256, "image/png", 12).isEmpty());
+        assertTrue(thumbnailService.getThumbnail(sha256, "image/png", 20_000_000L).isEmpty());
+    }
+}
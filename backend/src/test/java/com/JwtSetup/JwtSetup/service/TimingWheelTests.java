@@ -0,0 +1,48 @@
+package com.JwtSetup.JwtSetup.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTests {
+
+    @Test
+    void expiresItemsInTheirTickAcrossLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 8, 1_000);
+        long[] deadlines = {1_035, 1_079, 1_080, 1_500, 1_641, 7_000, 250_000};
+        for (long deadline : deadlines) {
+            assertTrue(wheel.add(deadline, deadline));
+        }
+        assertFalse(wheel.add(1_005, 1_005L), "deadline within the current tick");
+        assertEquals(deadlines.length, wheel.pending());
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 1_000; now <= 260_000; now += 7) {
+            long at = now;
+            wheel.advance(now, deadline -> {
+                fired.add(deadline);
+                // never late, at most one tick early
+                assertTrue(at >= deadline - 10 && at < deadline + 10 + 7, deadline + " fired at " + at);
+            });
+        }
+
+        assertEquals(List.of(1_035L, 1_079L, 1_080L, 1_500L, 1_641L, 7_000L, 250_000L), fired);
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void acceptsItemsAfterTheClockMoved() {
+        TimingWheel<String> wheel = new TimingWheel<>(1_000, 64, 0);
+        wheel.advance(3_600_000, item -> fail());
+        wheel.add(3_600_000 + 90_000, "later");
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(3_600_000 + 88_000, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(3_600_000 + 91_000, fired::add);
+        assertEquals(List.of("later"), fired);
+    }
+}
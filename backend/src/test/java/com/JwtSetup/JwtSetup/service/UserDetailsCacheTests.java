@@ -0,0 +1,126 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.entity.User;
+import com.JwtSetup.JwtSetup.repo.RoleRepository;
+import com.JwtSetup.JwtSetup.repo.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Full context: eviction is driven by Hibernate events and transaction commits, rejection by the JWT filter
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserDetailsCacheTests {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode("secret"));
+        return userRepository.save(user);
+    }
+
+    @Test
+    void loadsAnAccountOncePerTtl() {
+        newUser("cached@test");
+        long misses = userDetailsCache.missCount();
+        long hits = userDetailsCache.hitCount();
+
+        assertEquals("cached@test", userDetailsCache.get("cached@test").getUsername());
+        assertEquals("cached@test", userDetailsCache.get("cached@test").getUsername());
+
+        assertEquals(misses + 1, userDetailsCache.missCount());
+        assertEquals(hits + 1, userDetailsCache.hitCount());
+    }
+
+    @Test
+    void tokensIssuedInTheSecondOfAChangeAreStale() {
+        long before;
+        long after;
+        do {
+            before = System.currentTimeMillis();
+            userDetailsCache.evict("changed@test");
+            after = System.currentTimeMillis();
+        } while (before / 1000 != after / 1000);
+        long second = before - before % 1000;
+
+        assertTrue(userDetailsCache.changedSince("changed@test", new Date(second - 1000)));
+        assertTrue(userDetailsCache.changedSince("changed@test", new Date(second)));
+        assertFalse(userDetailsCache.changedSince("changed@test", new Date(second + 1000)));
+        assertTrue(userDetailsCache.changedSince("changed@test", null));
+        assertFalse(userDetailsCache.changedSince("unchanged@test", new Date(second)));
+    }
+
+    @Test
+    void roleChangesEvictOnceCommitted() {
+        Long id = newUser("roles@test").getId();
+        assertTrue(userDetailsCache.get("roles@test").getAuthorities().isEmpty());
+        long misses = userDetailsCache.missCount();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = userRepository.findById(id).orElseThrow();
+            user.getRoles().add(roleRepository.findByName("ROLE_USER").orElseThrow());
+            userRepository.saveAndFlush(user);
+            userDetailsCache.get("roles@test");
+            assertEquals(misses, userDetailsCache.missCount(), "evicted before commit");
+        });
+
+        assertEquals("ROLE_USER", userDetailsCache.get("roles@test").getAuthorities().iterator().next().getAuthority());
+        assertEquals(misses + 1, userDetailsCache.missCount());
+        assertTrue(userDetailsCache.changedSince("roles@test", null));
+    }
+
+    @Test
+    void rejectsADisabledAccountWithATokenIssuedBefore() throws Exception {
+        User user = newUser("disabled@test");
+        user.getRoles().add(roleRepository.findByName("ROLE_USER").orElseThrow());
+        user = userRepository.save(user);
+        String body = mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"disabled@test\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String token = "Bearer " + objectMapper.readTree(body).path("accessToken").asText();
+        mockMvc.perform(get("/api/projects").header("Authorization", token)).andExpect(status().isOk());
+
+        user.setEnabled(false);
+        userRepository.save(user);
+
+        mockMvc.perform(get("/api/projects").header("Authorization", token))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Unauthorized: Account disabled"));
+    }
+}
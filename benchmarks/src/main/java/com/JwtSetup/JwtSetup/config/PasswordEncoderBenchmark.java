@@ -0,0 +1,43 @@
+package com.JwtSetup.JwtSetup.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one sign-in password check at the BCrypt strength {@link SecurityConfig} uses (10, the
+ * default) and its neighbours; each step doubles it. Measured directly on the encoder, without the
+ * pool of {@code BoundedPasswordEncoder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"8", "10", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+
+    private String hash;
+
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("1234");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("1234", hash);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("1234");
+    }
+}
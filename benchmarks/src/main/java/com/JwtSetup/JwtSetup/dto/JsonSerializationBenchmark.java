@@ -0,0 +1,75 @@
+package com.JwtSetup.JwtSetup.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies as Spring MVC writes them: a page of tasks ({@link TaskPageDTO}) and the project
+ * list with embedded tasks. The mapper is configured like Spring Boot's (ISO dates, java.time module).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int tasks;
+
+    private ObjectWriter writer;
+
+    private TaskPageDTO page;
+
+    private List<ProjectDTO> projects;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writer();
+        List<TaskDTO> items = new ArrayList<>(tasks);
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < tasks; i++) {
+            TaskDTO task = new TaskDTO();
+            task.setId((long) i + 1);
+            task.setTitle("Task " + i);
+            task.setDescription("Description of task " + i);
+            task.setDueDate(start.plusDays(i % 90));
+            task.setCompleted(i % 4 == 0);
+            task.setStatus(i % 4 == 0 ? "COMPLETED" : "NOT_STARTED");
+            task.setSection(i % 3 == 0 ? "todo" : "doing");
+            task.setProjectId(1L);
+            task.setAttachmentCount(i % 5);
+            items.add(task);
+        }
+        page = new TaskPageDTO(items, "2026-03-31_" + tasks);
+        ProjectDTO project = new ProjectDTO();
+        project.setId(1L);
+        project.setName("Benchmark project");
+        project.setTitle("Benchmark project");
+        project.setColor("#0EA5E9");
+        project.setCreatedAt("2026-01-01T09:00");
+        project.setTasks(items);
+        project.setTotalTasks(tasks);
+        projects = List.of(project);
+    }
+
+    @Benchmark
+    public byte[] taskPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] projectsWithTasks() throws JsonProcessingException {
+        return writer.writeValueAsBytes(projects);
+    }
+}
@@ -0,0 +1,76 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.dto.ProjectDTO;
+import com.JwtSetup.JwtSetup.dto.TaskDTO;
+import com.JwtSetup.JwtSetup.entity.Project;
+import com.JwtSetup.JwtSetup.entity.Task;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of a project with all its tasks ({@code includeTasks=true}), and of its
+ * tasks one by one as the task pages do. Entities are built in memory; no database involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoConversionBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int tasks;
+
+    private final ProjectService projectService = new ProjectService();
+
+    private final TaskService taskService = new TaskService();
+
+    private Project project;
+
+    @Setup
+    public void setup() {
+        project = buildProject(tasks);
+    }
+
+    static Project buildProject(int taskCount) {
+        Project project = new Project();
+        project.setId(1L);
+        project.setTitle("Benchmark project");
+        project.setDescription("Project with " + taskCount + " tasks");
+        project.setColor("#0EA5E9");
+        project.setCreatedAt(LocalDateTime.of(2026, 1, 1, 9, 0));
+        List<Task> list = new ArrayList<>(taskCount);
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task("Task " + i, "Description of task " + i, start.plusDays(i % 90), project);
+            task.setId((long) i + 1);
+            task.setSection(i % 3 == 0 ? "todo" : "doing");
+            if (i % 4 == 0) {
+                task.setCompleted(true);
+            }
+            list.add(task);
+        }
+        project.setTasks(list);
+        return project;
+    }
+
+    @Benchmark
+    public ProjectDTO projectWithTasks() {
+        return projectService.convertToDTO(project);
+    }
+
+    @Benchmark
+    public void tasks(Blackhole blackhole) {
+        for (Task task : project.getTasks()) {
+            TaskDTO dto = taskService.convertToDTO(task);
+            blackhole.consume(dto);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.JwtSetup.JwtSetup.service;
+
+import com.JwtSetup.JwtSetup.entity.Role;
+import com.JwtSetup.JwtSetup.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token issuance and verification. {@code cacheEntries=0} disables {@link VerifiedTokenCache},
+ * so every call verifies the HMAC signature; with the default size repeated calls for the same token
+ * are cache hits, as for a client reusing its token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "changemechangemechangemechangemechangemechangemechangemechangemechangeme"
+            + "changemechangemechangemechangemechangemechangemechangeme";
+
+    @Param({"0", "10000"})
+    private long cacheEntries;
+
+    private JwtUtils jwtUtils;
+
+    private Authentication authentication;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils(new VerifiedTokenCache(cacheEntries), new SimpleMeterRegistry());
+        set(jwtUtils, "jwtSecret", SECRET);
+        set(jwtUtils, "jwtAccessExpirationMs", 900_000);
+        set(jwtUtils, "jwtRefreshExpirationMs", 86_400_000);
+        jwtUtils.initParser();
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("user@gmail.com");
+        user.setPassword("unused");
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        user.setRoles(new HashSet<>(List.of(role)));
+        UserDetailsImpl details = UserDetailsImpl.build(user);
+        authentication = new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities());
+        token = jwtUtils.generateAccessToken(authentication, "family");
+    }
+
+    private static void set(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtils.generateAccessToken(authentication, "family");
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtUtils.getUsernameFromToken(token);
+    }
+}
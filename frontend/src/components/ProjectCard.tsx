@@ -17,10 +17,9 @@ interface ProjectCardProps {
 }
 
 const ProjectCard = ({ project }: ProjectCardProps) => {
-  const { getProjectProgress, deleteProject } = useProjects();
+  const { getProjectProgress, getTaskCounts, deleteProject } = useProjects();
   const progress = getProjectProgress(project.id);
-  const taskCount = project.tasks.length;
-  const completedCount = project.tasks.filter((t) => t.completed).length;
+  const { total: taskCount, completed: completedCount } = getTaskCounts(project);
 
   return (
     <Link to={`/project/${project.id}`}>
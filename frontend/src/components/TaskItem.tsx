@@ -1,5 +1,5 @@
 import React, { useState } from 'react';
-import { Check, Calendar, MoreHorizontal, Trash2, Edit2, AlertTriangle } from 'lucide-react';
+import { Check, Calendar, MoreHorizontal, Trash2, Edit2, AlertTriangle, Paperclip } from 'lucide-react';
 import { Task } from '@/types';
 import { cn } from '@/lib/utils';
 import { Button } from '@/components/ui/button';
@@ -105,6 +105,14 @@ const TaskItem = ({ task, onToggle, onStatusChange, onDelete, onSelect, isSelect
         </div>
       )}
 
+      {/* Attachments */}
+      {!!task.attachmentCount && (
+        <div className="flex items-center gap-1 text-sm text-muted-foreground">
+          <Paperclip className="w-3 h-3" />
+          <span>{task.attachmentCount}</span>
+        </div>
+      )}
+
       {/* Actions */}
       <DropdownMenu>
         <DropdownMenuTrigger asChild>
@@ -45,7 +45,9 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
       console.error('Login error:', error);
       toast({
         title: "Erreur de connexion",
-        description: error.response?.data?.message || "Email ou mot de passe incorrect",
+        description: error.response?.status === 429
+          ? "Trop de tentatives, réessayez dans quelques instants"
+          : error.response?.data?.message || "Email ou mot de passe incorrect",
         variant: "destructive",
       });
       return false;
@@ -16,6 +16,8 @@ interface ProjectContextType {
   toggleTaskComplete: (projectId: string, taskId: string) => Promise<void>;
   updateTaskStatus: (projectId: string, taskId: string) => Promise<void>;
   getProjectProgress: (projectId: string) => number;
+  getTaskCounts: (project: Project) => { total: number; completed: number };
+  loadProjectTasks: (projectId: string) => Promise<void>;
   loading: boolean;
   refreshProjects: () => Promise<void>;
 }
@@ -28,7 +30,33 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
   const [currentProject, setCurrentProject] = useState<Project | null>(null);
   const [loading, setLoading] = useState(false);
 
-  // Load projects from backend when authenticated
+  // Convert backend format to frontend format; a summary comes without tasks
+  const toProject = (p: any): Project => ({
+    id: String(p.id || p.id.toString()),
+    name: p.name || p.title || '',
+    description: p.description || '',
+    color: p.color || '#0EA5E9',
+    tasks: (p.tasks || []).map((t: any) => ({
+      id: String(t.id || t.id.toString()),
+      title: t.title || '',
+      description: t.description || '',
+      completed: t.completed || false,
+      status: t.status || 'NOT_STARTED',
+      projectId: String(p.id || p.id.toString()),
+      section: t.section || 'Recently assigned',
+      dueDate: t.dueDate || '',
+      createdAt: t.createdAt || '',
+      tags: t.tags || [],
+      attachmentCount: t.attachmentCount,
+    })),
+    tasksLoaded: Array.isArray(p.tasks),
+    totalTasks: p.totalTasks,
+    completedTasks: p.completedTasks,
+    createdAt: p.createdAt || '',
+    ownerId: user?.id || '1',
+  });
+
+  // Load project summaries from backend when authenticated; pages showing tasks load them per project
   const refreshProjects = async () => {
     if (!isAuthenticated) {
       setProjects([]);
@@ -38,30 +66,7 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
     try {
       setLoading(true);
       const fetchedProjects = await projectApi.getAllProjects();
-      
-      // Convert backend format to frontend format
-      const formattedProjects = (Array.isArray(fetchedProjects) ? fetchedProjects : []).map((p: any) => ({
-        id: String(p.id || p.id.toString()),
-        name: p.name || p.title || '',
-        description: p.description || '',
-        color: p.color || '#0EA5E9',
-        tasks: (p.tasks || []).map((t: any) => ({
-          id: String(t.id || t.id.toString()),
-          title: t.title || '',
-          description: t.description || '',
-          completed: t.completed || false,
-          status: t.status || 'NOT_STARTED',
-          projectId: String(p.id || p.id.toString()),
-          section: t.section || 'Recently assigned',
-          dueDate: t.dueDate || '',
-          createdAt: t.createdAt || '',
-          tags: t.tags || [],
-        })),
-        createdAt: p.createdAt || '',
-        ownerId: user?.id || '1',
-      }));
-      
-      setProjects(formattedProjects);
+      setProjects((Array.isArray(fetchedProjects) ? fetchedProjects : []).map(toProject));
     } catch (error: any) {
       console.error('Error fetching projects:', error);
       toast({
@@ -78,6 +83,27 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
     refreshProjects();
   }, [isAuthenticated]);
 
+  const loadProjectTasks = async (projectId: string) => {
+    try {
+      const loaded = toProject(await projectApi.getProject(projectId));
+      setProjects((prev) => prev.map((p) => (p.id === projectId ? loaded : p)));
+    } catch (error: any) {
+      console.error('Error fetching project tasks:', error);
+      toast({
+        title: "Erreur",
+        description: "Impossible de charger les tâches",
+        variant: "destructive",
+      });
+    }
+  };
+
+  // Counts of a summary are only refreshed from the server
+  const refreshIfSummary = async (projectId: string) => {
+    if (projects.find((p) => p.id === projectId)?.tasksLoaded === false) {
+      await refreshProjects();
+    }
+  };
+
   const addProject = async (name: string, description?: string, color?: string) => {
     try {
       const createdProject = await projectApi.createProject({ name, description, color });
@@ -99,6 +125,7 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
           createdAt: t.createdAt,
           tags: t.tags || [],
         })) || [],
+        tasksLoaded: true,
         createdAt: createdProject.createdAt,
         ownerId: user?.id || '1',
       };
@@ -228,6 +255,7 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
         title: "Succès",
         description: "Tâche supprimée avec succès",
       });
+      await refreshIfSummary(projectId);
     } catch (error: any) {
       console.error('Error deleting task:', error);
       toast({
@@ -254,6 +282,7 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
             : p
         )
       );
+      await refreshIfSummary(projectId);
     } catch (error: any) {
       console.error('Error toggling task:', error);
       toast({
@@ -286,6 +315,7 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
             : p
         )
       );
+      await refreshIfSummary(projectId);
     } catch (error: any) {
       console.error('Error updating task status:', error);
       toast({
@@ -296,11 +326,17 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
     }
   };
 
+  const getTaskCounts = (project: Project) =>
+    project.tasksLoaded
+      ? { total: project.tasks.length, completed: project.tasks.filter((t) => t.completed).length }
+      : { total: project.totalTasks || 0, completed: project.completedTasks || 0 };
+
   const getProjectProgress = (projectId: string) => {
     const project = projects.find((p) => p.id === projectId);
-    if (!project || project.tasks.length === 0) return 0;
-    const completed = project.tasks.filter((t) => t.completed).length;
-    const raw = (completed / project.tasks.length) * 100;
+    if (!project) return 0;
+    const { total, completed } = getTaskCounts(project);
+    if (total === 0) return 0;
+    const raw = (completed / total) * 100;
     // Round to nearest 5% step: 0,5,10,...,100
     const stepped = Math.min(100, Math.max(0, Math.round(raw / 5) * 5));
     return stepped;
@@ -320,6 +356,8 @@ export const ProjectProvider = ({ children }: { children: ReactNode }) => {
         toggleTaskComplete,
         updateTaskStatus,
         getProjectProgress,
+        getTaskCounts,
+        loadProjectTasks,
         loading,
         refreshProjects,
       }}
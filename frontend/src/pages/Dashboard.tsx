@@ -8,14 +8,11 @@ import { useProjects } from '@/contexts/ProjectContext';
 import { useAuth } from '@/contexts/AuthContext';
 
 const Dashboard = () => {
-  const { projects } = useProjects();
+  const { projects, getTaskCounts } = useProjects();
   const { user } = useAuth();
 
-  const totalTasks = projects.reduce((acc, p) => acc + p.tasks.length, 0);
-  const completedTasks = projects.reduce(
-    (acc, p) => acc + p.tasks.filter((t) => t.completed).length,
-    0
-  );
+  const totalTasks = projects.reduce((acc, p) => acc + getTaskCounts(p).total, 0);
+  const completedTasks = projects.reduce((acc, p) => acc + getTaskCounts(p).completed, 0);
   const pendingTasks = totalTasks - completedTasks;
 
   const stats = [
@@ -1,4 +1,4 @@
-import React, { useState } from 'react';
+import React, { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { Trash2, Calendar as CalendarIcon, ChevronRight, Search } from 'lucide-react';
 import Sidebar from '@/components/Sidebar';
@@ -10,52 +10,74 @@ import { Task } from '@/types';
 import { cn } from '@/lib/utils';
 import Swal from 'sweetalert2';
 import { Input } from '@/components/ui/input';
+import { taskApi } from '@/services/api';
+
+type DueWindow = 'all' | 'overdue' | 'today' | 'week';
+type MyTask = Task & { projectName: string; projectColor: string };
+
+const localDate = () => {
+  const now = new Date();
+  return `${now.getFullYear()}-${String(now.getMonth() + 1).padStart(2, '0')}-${String(now.getDate()).padStart(2, '0')}`;
+};
 
 const MyTasks = () => {
   const navigate = useNavigate();
   const { projects, deleteTask, updateTaskStatus } = useProjects();
-  const [selectedTask, setSelectedTask] = useState<Task | null>(null);
   const [search, setSearch] = useState('');
-  const [page, setPage] = useState(1);
+  // Searched on the server, so matches on any page are found
+  const [query, setQuery] = useState('');
+  const [due, setDue] = useState<DueWindow>('all');
+  // Cursors of the pages visited so far; the server pages by (dueDate, id)
+  const [cursors, setCursors] = useState<(string | undefined)[]>([undefined]);
+  const [tasks, setTasks] = useState<MyTask[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const PAGE_SIZE = 6;
+  const currentPage = cursors.length;
 
-  // Récupérer toutes les tâches non complétées de tous les projets
-  const incompleteTasks: (Task & { projectId: string; projectName: string; projectColor: string })[] = [];
-  
-  projects.forEach((project) => {
-    project.tasks
-      .filter((task) => !task.completed)
-      .forEach((task) => {
-        incompleteTasks.push({
-          ...task,
-          projectId: project.id,
-          projectName: project.name,
-          projectColor: project.color,
-        });
-      });
-  });
+  // Recherche envoyée au serveur après une courte pause de frappe ; repart de la première page
+  useEffect(() => {
+    const timer = setTimeout(() => {
+      if (search.trim() !== query) {
+        setQuery(search.trim());
+        setCursors([undefined]);
+      }
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [search, query]);
 
-  // Trier par date d'échéance (les plus proches en premier)
-  const sortedTasks = incompleteTasks.sort((a, b) => {
-    if (!a.dueDate && !b.dueDate) return 0;
-    if (!a.dueDate) return 1;
-    if (!b.dueDate) return -1;
-    return new Date(a.dueDate).getTime() - new Date(b.dueDate).getTime();
-  });
-
-  const filteredTasks = sortedTasks.filter((t) => {
-    if (!search.trim()) return true;
-    const term = search.toLowerCase();
-    return (
-      t.title.toLowerCase().includes(term) ||
-      (t.description || '').toLowerCase().includes(term) ||
-      t.projectName.toLowerCase().includes(term)
-    );
-  });
-
-  const totalPages = Math.max(1, Math.ceil(filteredTasks.length / PAGE_SIZE));
-  const currentPage = Math.min(page, totalPages);
-  const pagedTasks = filteredTasks.slice((currentPage - 1) * PAGE_SIZE, currentPage * PAGE_SIZE);
+  // Non complétées, tous projets confondus, triées par échéance côté serveur
+  useEffect(() => {
+    let cancelled = false;
+    taskApi.getMyTasks({
+      completed: false,
+      due: due === 'all' ? undefined : due,
+      today: localDate(),
+      q: query || undefined,
+      cursor: cursors[cursors.length - 1],
+      limit: PAGE_SIZE,
+    }).then((page) => {
+      if (cancelled) return;
+      setNextCursor(page.nextCursor);
+      setTasks(page.items.map((t: any) => {
+        const project = projects.find((p) => p.id === String(t.projectId));
+        return {
+          id: String(t.id),
+          title: t.title || '',
+          description: t.description || '',
+          completed: t.completed || false,
+          status: t.status || 'NOT_STARTED',
+          projectId: String(t.projectId),
+          section: t.section || '',
+          dueDate: t.dueDate || '',
+          createdAt: t.createdAt || '',
+          attachmentCount: t.attachmentCount,
+          projectName: project?.name || '',
+          projectColor: project?.color || '#0EA5E9',
+        };
+      }));
+    }).catch((error) => console.error('Error fetching tasks:', error));
+    return () => { cancelled = true; };
+  }, [projects, due, query, cursors]);
 
   const confirmDelete = async (taskId: string, projectId: string) => {
     const result = await Swal.fire({
@@ -82,24 +104,42 @@ const MyTasks = () => {
             <div>
               <h1 className="text-3xl font-bold text-foreground mb-2">My Tasks</h1>
               <p className="text-muted-foreground">
-                {filteredTasks.length} task{filteredTasks.length !== 1 ? 's' : ''} shown
+                {tasks.length} task{tasks.length !== 1 ? 's' : ''} on page {currentPage}
               </p>
             </div>
+            <div className="flex items-center gap-3">
+            <div className="flex items-center gap-1">
+              {(['all', 'overdue', 'today', 'week'] as DueWindow[]).map((window) => (
+                <Button
+                  key={window}
+                  variant={due === window ? 'default' : 'outline'}
+                  size="sm"
+                  onClick={() => { setDue(window); setCursors([undefined]); }}
+                >
+                  {{ all: 'All', overdue: 'Overdue', today: 'Today', week: 'This week' }[window]}
+                </Button>
+              ))}
+            </div>
             <div className="relative w-72">
               <Search className="w-4 h-4 absolute left-3 top-1/2 -translate-y-1/2 text-muted-foreground" />
               <Input
                 value={search}
-                onChange={(e) => { setSearch(e.target.value); setPage(1); }}
+                onChange={(e) => setSearch(e.target.value)}
                 placeholder="Search tasks"
                 className="pl-9"
               />
             </div>
+            </div>
           </div>
         </header>
 
         {/* Content */}
         <div className="flex-1 overflow-auto">
-          {filteredTasks.length === 0 ? (
+          {tasks.length === 0 && query ? (
+            <div className="flex items-center justify-center h-full">
+              <p className="text-muted-foreground">No open task matches "{query}".</p>
+            </div>
+          ) : tasks.length === 0 ? (
             <div className="flex items-center justify-center h-full">
               <div className="text-center">
                 <div className="text-6xl mb-4">🎉</div>
@@ -113,7 +153,7 @@ const MyTasks = () => {
             </div>
           ) : (
             <div className="p-6 space-y-3">
-              {pagedTasks.map((task) => (
+              {tasks.map((task) => (
                 <Card
                   key={task.id}
                   className="p-4 hover:shadow-md transition-shadow group"
@@ -190,25 +230,25 @@ const MyTasks = () => {
           )}
         </div>
 
-        {filteredTasks.length > 0 && (
+        {(currentPage > 1 || nextCursor) && (
           <div className="border-t border-border p-4 flex items-center justify-between bg-card">
             <span className="text-sm text-muted-foreground">
-              Page {currentPage} of {totalPages}
+              Page {currentPage}
             </span>
             <div className="flex items-center gap-2">
               <Button
                 variant="outline"
                 size="sm"
                 disabled={currentPage === 1}
-                onClick={() => setPage((p) => Math.max(1, p - 1))}
+                onClick={() => setCursors((c) => c.slice(0, -1))}
               >
                 Previous
               </Button>
               <Button
                 variant="outline"
                 size="sm"
-                disabled={currentPage === totalPages}
-                onClick={() => setPage((p) => Math.min(totalPages, p + 1))}
+                disabled={!nextCursor}
+                onClick={() => nextCursor && setCursors((c) => [...c, nextCursor])}
               >
                 Next
               </Button>
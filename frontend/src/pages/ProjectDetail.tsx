@@ -18,7 +18,7 @@ import Swal from 'sweetalert2';
 const ProjectDetail = () => {
   const { id } = useParams<{ id: string }>();
   const navigate = useNavigate();
-  const { projects, addTask, deleteTask, toggleTaskComplete, updateTaskStatus, updateTask, getProjectProgress } = useProjects();
+  const { projects, addTask, deleteTask, toggleTaskComplete, updateTaskStatus, updateTask, getProjectProgress, loadProjectTasks } = useProjects();
   const [selectedTask, setSelectedTask] = useState<Task | null>(null);
   const [newTaskTitle, setNewTaskTitle] = useState('');
   const [newTaskDueDate, setNewTaskDueDate] = useState('');
@@ -34,6 +34,13 @@ const ProjectDetail = () => {
     }
   }, [project, navigate]);
 
+  // The project list holds summaries only; this page shows the tasks
+  useEffect(() => {
+    if (project && !project.tasksLoaded) {
+      loadProjectTasks(project.id);
+    }
+  }, [project?.id, project?.tasksLoaded]);
+
   if (!project) return null;
 
   const progress = getProjectProgress(project.id);
@@ -48,8 +48,9 @@ export const authApi = {
 
 // Project API
 export const projectApi = {
-  getAllProjects: async () => {
-    const response = await api.get('/projects');
+  // Summaries (task counts, no task bodies) unless includeTasks is set
+  getAllProjects: async (includeTasks = false) => {
+    const response = await api.get('/projects', { params: { includeTasks } });
     return response.data;
   },
   
@@ -85,6 +86,12 @@ export const taskApi = {
     const response = await api.get(`/projects/${projectId}/tasks`);
     return response.data;
   },
+
+  // The caller's tasks across projects, by due date (undated last); one page per call
+  getMyTasks: async (params: { completed?: boolean; status?: string[]; due?: 'overdue' | 'today' | 'week'; today?: string; q?: string; cursor?: string; limit?: number }) => {
+    const response = await api.get('/tasks', { params, paramsSerializer: { indexes: null } });
+    return response.data as { items: any[]; nextCursor: string | null };
+  },
   
   createTask: async (projectId: string, task: { title: string; description?: string; section?: string; dueDate?: string }) => {
     const response = await api.post(`/projects/${projectId}/tasks`, task);
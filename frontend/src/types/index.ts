@@ -18,6 +18,7 @@ export interface Task {
   projectId: string;
   section?: string;
   tags?: Tag[];
+  attachmentCount?: number;
   createdAt: string;
 }
 
@@ -34,6 +35,10 @@ export interface Project {
   color: string;
   icon?: string;
   tasks: Task[];
+  // False for a summary: tasks is empty and the counts below stand in for it
+  tasksLoaded: boolean;
+  totalTasks?: number;
+  completedTasks?: number;
   createdAt: string;
   ownerId: string;
 }